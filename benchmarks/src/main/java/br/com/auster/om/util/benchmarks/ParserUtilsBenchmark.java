@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util.benchmarks;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.auster.om.util.ParseErrorPolicy;
+import br.com.auster.om.util.ParserUtils;
+
+/**
+ * Measures the <code>String</code> parsing methods of {@link ParserUtils}, on values as found in
+ * 	usage files and on invalid ones. Each invocation parses the next value of a small set, so
+ * 	branches are not trained on a single input.
+ * <p>
+ * The benchmark runs under {@link ParseErrorPolicy#COUNTED}, so invalid values are counted
+ * 	but not logged, and the cost of counting them is part of the measured cost.
+ *
+ * @version $Id$
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserUtilsBenchmark {
+
+	private static final String[] VALID_DOUBLES = { "1,234.56", "0.5", "  42 ", "1234567.891", "-17.25", "3", "0.001", "98,765" };
+	private static final String[] INVALID_DOUBLES = { "abc", "-", "N/A", "", "  ", "x1.5", "--3", "." };
+	private static final String[] VALID_INTS = { "123", "  45 ", "1,024", "-7", "2147483647", "0", "86400", "3600" };
+	private static final String[] INVALID_INTS = { "x12", "", "--", "n/a", " ", "#1", "+-2", "abc" };
+	private static final String[] VALID_DATES = { "20050131", "19991231", "20260101", "20051108", "20240229", "20001001", "19990615", "20301130" };
+	private static final String[] INVALID_DATES = { "2005013", "abcdefgh", "", "2005-01-3", "  ", "x0050131", "200501", "0" };
+	private static final String[] VALID_DATETIMES = { "20051108202009", "19991231235959", "20260101000000", "20050131120000",
+			"20240229063015", "20001001101010", "19990615221100", "20301130080808" };
+	private static final String[] INVALID_DATETIMES = { "200511082020xx", "", "2005110820", "abcdefghijklmn", " ", "2005-11-08 20:20", "x", "0" };
+
+
+	@Param({ "valid", "invalid" })
+	public String input;
+
+	private String[] doubles;
+	private String[] ints;
+	private String[] dates;
+	private String[] dateTimes;
+	private int next;
+	private ParseErrorPolicy policy;
+
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		boolean valid = "valid".equals(this.input);
+		this.doubles = valid ? VALID_DOUBLES : INVALID_DOUBLES;
+		this.ints = valid ? VALID_INTS : INVALID_INTS;
+		this.dates = valid ? VALID_DATES : INVALID_DATES;
+		this.dateTimes = valid ? VALID_DATETIMES : INVALID_DATETIMES;
+		this.policy = ParserUtils.getErrorPolicy();
+		ParserUtils.setErrorPolicy(ParseErrorPolicy.COUNTED);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		ParserUtils.setErrorPolicy(this.policy);
+	}
+
+	private int nextIndex() {
+		return (this.next++) & 7;
+	}
+
+	@Benchmark
+	public double getDouble() {
+		return ParserUtils.getDouble(this.doubles[nextIndex()]);
+	}
+
+	@Benchmark
+	public int getInt() {
+		return ParserUtils.getInt(this.ints[nextIndex()]);
+	}
+
+	@Benchmark
+	public Date getDate() {
+		return ParserUtils.getDate(this.dates[nextIndex()]);
+	}
+
+	@Benchmark
+	public Date getDateTime() {
+		return ParserUtils.getDateTime(this.dateTimes[nextIndex()]);
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.auster.om.util.UnitConvertor;
+
+/**
+ * Measures {@link UnitConvertor#getConvertionFactor(String, String)} with several threads
+ * 	sharing one convertor, as rating threads do. Pairs mix defined factors, equal units and
+ * 	units without factors, in varying case.
+ *
+ * @version $Id$
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class UnitConvertorBenchmark {
+
+	private static final String[][] PAIRS = {
+		{ "MINUTES", "TIME" }, { "KB", "DATA" }, { "minutes", "time" }, { "MB", "DATA" },
+		{ "HOURS", "TIME" }, { "TIME", "TIME" }, { "EVENT", "UNIT" }, { "unknown", "TIME" } };
+
+
+	@State(Scope.Benchmark)
+	public static class Convertor {
+
+		UnitConvertor convertor;
+		int[][] ids;
+
+		@Setup
+		public void setUp() {
+			this.convertor = new UnitConvertor() {};
+			this.convertor.addConvertionFactor("MINUTES", "TIME", 60);
+			this.convertor.addConvertionFactor("HOURS", "TIME", 3600);
+			this.convertor.addConvertionFactor("KB", "DATA", 1024);
+			this.convertor.addConvertionFactor("MB", "DATA", 1048576);
+			this.convertor.addConvertionFactor("GB", "DATA", 1073741824);
+			this.convertor.addConvertionFactor("EVENT", "UNIT", 1);
+			this.ids = new int[PAIRS.length][];
+			for (int i = 0; i < PAIRS.length; i++) {
+				this.ids[i] = new int[] { this.convertor.internUnit(PAIRS[i][0]), this.convertor.internUnit(PAIRS[i][1]) };
+			}
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Cursor {
+		int next;
+	}
+
+	@Benchmark
+	public double getConvertionFactor(Convertor _convertor, Cursor _cursor) {
+		String[] pair = PAIRS[(_cursor.next++) & 7];
+		return _convertor.convertor.getConvertionFactor(pair[0], pair[1]);
+	}
+
+	@Benchmark
+	public double getConvertionFactorById(Convertor _convertor, Cursor _cursor) {
+		int[] pair = _convertor.ids[(_cursor.next++) & 7];
+		return _convertor.convertor.getConvertionFactor(pair[0], pair[1]);
+	}
+}
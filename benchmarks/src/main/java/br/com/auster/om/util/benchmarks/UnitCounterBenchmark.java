@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import br.com.auster.om.util.ParserUtils;
+import br.com.auster.om.util.UnitCounter;
+
+/**
+ * Measures the creation of counters from usage values and the text form of {@link UnitCounter}.
+ * 	Each invocation works on the next element of a small set, covering every type token known
+ * 	by {@link ParserUtils#getUnitCounter(String, String)} and every counter type.
+ *
+ * @version $Id$
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UnitCounterBenchmark {
+
+	// every token, plus one falling back to minutes; 16 entries so the index can be masked
+	private static final String[] TYPES = { "MINUTES", "SECONDS", "KB", "KBYTES", "MB", "GB", "TB", " B",
+			"DOWNLOAD", "EVENT", "EVENTO", "UNIT", "TIME", "minutes", "kb", "OTHER" };
+	private static final String[] VALUES = { "12.5", "75", "1,024.5", "300", "2.25", "0.75", "0.001", "4096",
+			"1", "3", "1", "10", "59", "0.5", "8", "1.5" };
+	private static final String[] TEXTS = { "00h01m15s", "4096 bytes", "12 unidade(s)", "123h59m59s" };
+
+	private final UnitCounter[] counters = { counter(UnitCounter.TIME_COUNTER, 75), counter(UnitCounter.DATA_COUNTER, 4096),
+			counter(UnitCounter.UNIT_COUNTER, 12), counter(UnitCounter.TIME_COUNTER, 445199) };
+	private int next;
+
+
+	private static UnitCounter counter(String _type, long _units) {
+		UnitCounter counter = new UnitCounter(_type);
+		counter.addUnits(_units);
+		return counter;
+	}
+
+	@Benchmark
+	public UnitCounter getUnitCounter() {
+		int i = (this.next++) & 15;
+		return ParserUtils.getUnitCounter(TYPES[i], VALUES[i]);
+	}
+
+	@Benchmark
+	public String toStringCounter() {
+		return this.counters[(this.next++) & 3].toString();
+	}
+
+	@Benchmark
+	public String format() {
+		UnitCounter counter = this.counters[(this.next++) & 3];
+		return UnitCounter.format(counter.getType(), counter.getUnits());
+	}
+
+	@Benchmark
+	public UnitCounter parse() {
+		UnitCounter counter = new UnitCounter();
+		counter.parse(TEXTS[(this.next++) & 3]);
+		return counter;
+	}
+}
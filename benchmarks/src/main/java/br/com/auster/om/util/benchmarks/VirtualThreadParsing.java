@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util.benchmarks;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import br.com.auster.om.util.ParserUtils;
+
+/**
+ * Checks that the parsing and formatting methods of {@link ParserUtils} keep no state per thread.
+ * 	Not a JMH benchmark: it starts a large number of threads, keeps them all alive at once and
+ * 	reports the heap they retain, first for threads that only wait and then for threads that
+ * 	parse numbers and dates before waiting. With no thread local formatters, both runs retain
+ * 	about the same number of bytes per thread.
+ * <p>
+ * Virtual threads are created through reflection, so the module still builds for Java 8; running
+ * 	on Java 21 or later is needed for them. Run with:
+ * <pre>
+ *   java -Xmx4g -cp target/benchmarks.jar br.com.auster.om.util.benchmarks.VirtualThreadParsing [threads]
+ * </pre>
+ * 	The thread count defaults to one million. With <code>-platform</code> as the second argument,
+ * 	platform threads are used instead, which only works with a much smaller count.
+ *
+ * @version $Id$
+ */
+public final class VirtualThreadParsing {
+
+	private static final String[] DOUBLES = { "1,234.56", "0.5", "1234567.891", "-17.25", "0.001" };
+	private static final String[] DATETIMES = { "20051108202009", "19991231235959", "20260101000000", "20240229063015" };
+	// has text fields, so it is always handed to SimpleDateFormat
+	private static final String[] TEXT_DATES = { "08/Nov/2005", "31/Dec/1999", "01/Jan/2026", "29/Feb/2024" };
+	private static final String TEXT_PATTERN = "dd/MMM/yyyy";
+
+	// Executors.newVirtualThreadPerTaskExecutor(), or null before Java 21
+	private static final Method VIRTUAL_THREADS = virtualThreadFactory();
+
+
+	private VirtualThreadParsing() {}
+
+	public static void main(String[] _args) throws Exception {
+		int threads = (_args.length > 0) ? Integer.parseInt(_args[0]) : 1000000;
+		boolean platform = (_args.length > 1) && "-platform".equals(_args[1]);
+		if ((!platform) && (VIRTUAL_THREADS == null)) {
+			System.out.println("Virtual threads need Java 21 or later; run with -platform and a smaller count");
+			System.exit(1);
+		}
+		// warms up the parsers, so their shared state is not counted
+		for (int i = 0; i < 10000; i++) {
+			work(i);
+		}
+		for (int round = 0; round < 2; round++) {
+			long idle = run(threads, platform, false);
+			long parsing = run(threads, platform, true);
+			System.out.println("round " + round + ": " + threads + (platform ? " platform" : " virtual")
+					+ " threads, idle " + (idle / threads) + " bytes/thread, parsing " + (parsing / threads)
+					+ " bytes/thread, difference " + ((parsing - idle) / threads) + " bytes/thread");
+		}
+	}
+
+	/**
+	 * Starts <code>_threads</code> tasks, waits until all of them are running and returns the growth
+	 * 	of the used heap at that point.
+	 */
+	private static long run(int _threads, boolean _platform, final boolean _parse) throws Exception {
+		final CountDownLatch started = new CountDownLatch(_threads);
+		final CountDownLatch release = new CountDownLatch(1);
+		final long[] sink = new long[1];
+		long before = usedHeap();
+		ExecutorService executor = _platform ? Executors.newCachedThreadPool() : (ExecutorService) VIRTUAL_THREADS.invoke(null);
+		try {
+			for (int i = 0; i < _threads; i++) {
+				final int index = i;
+				executor.execute(new Runnable() {
+					public void run() {
+						long result = _parse ? work(index) : index;
+						started.countDown();
+						try {
+							release.await();
+						} catch (InterruptedException ie) {
+							Thread.currentThread().interrupt();
+						}
+						if (result == Long.MIN_VALUE) {
+							sink[0] = result;
+						}
+					}
+				});
+			}
+			started.await();
+			return usedHeap() - before;
+		} finally {
+			release.countDown();
+			executor.shutdown();
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+		}
+	}
+
+	private static long work(int _index) {
+		double value = ParserUtils.getDouble(DOUBLES[_index % DOUBLES.length]);
+		String text = ParserUtils.asDoubleString(value);
+		String dateTime = DATETIMES[_index % DATETIMES.length];
+		long millis = ParserUtils.getEpochMillis(dateTime, ParserUtils.DEFAULT_DATETIME_PATTERN);
+		long day = ParserUtils.getEpochDay(TEXT_DATES[_index % TEXT_DATES.length], TEXT_PATTERN);
+		return millis + day + text.length();
+	}
+
+	private static long usedHeap() throws InterruptedException {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+			Thread.sleep(100);
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static Method virtualThreadFactory() {
+		try {
+			return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+		} catch (NoSuchMethodException nsme) {
+			return null;
+		}
+	}
+}
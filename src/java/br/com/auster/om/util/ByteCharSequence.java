@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Read-only view of a <code>ByteBuffer</code> as ISO-8859-1 text, so mapped file contents can be
+ * 	handed to the <code>CharSequence</code> methods of {@link ParserUtils} and {@link UnitIngester}
+ * 	without decoding them first. Indexes are absolute positions of the buffer, and the view can
+ * 	be pointed at another buffer with {@link #wrap(ByteBuffer)}.
+ *
+ * @version $Id$
+ */
+final class ByteCharSequence implements CharSequence {
+
+	private ByteBuffer buffer;
+
+
+	ByteCharSequence wrap(ByteBuffer _buffer) {
+		this.buffer = _buffer;
+		return this;
+	}
+
+	public int length() {
+		return this.buffer.limit();
+	}
+
+	public char charAt(int _index) {
+		return (char) (this.buffer.get(_index) & 0xff);
+	}
+
+	public CharSequence subSequence(int _start, int _end) {
+		return NumberParser.toString(this.buffer, _start, _end);
+	}
+
+	public String toString() {
+		return NumberParser.toString(this.buffer, 0, this.buffer.limit());
+	}
+}
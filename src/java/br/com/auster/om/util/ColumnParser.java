@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parses a column of values into a primitive array, for the batch methods of {@link ParserUtils}.
+ * <p>
+ * Invalid positions are marked in an array of <code>long</code> words laid out like a
+ * 	<code>BitSet</code>. Ranges are only split at multiples of 64, so parallel subtasks never
+ * 	write to the same word.
+ *
+ * @version $Id$
+ */
+final class ColumnParser extends RecursiveAction {
+
+	private static final long serialVersionUID = 1L;
+
+	static final int INTS = 0;
+	static final int DOUBLES = 1;
+	static final int EPOCH_MILLIS = 2;
+
+	// values parsed by each subtask; must be a multiple of 64
+	private static final int THRESHOLD = 8192;
+
+
+	private final int kind;
+	private final CharSequence[] src;
+	private final Object dst;
+	private final int intDefault;
+	private final double doubleDefault;
+	private final DatePattern pattern;
+	private final long[] invalid;
+	private final int from;
+	private final int to;
+
+
+	private ColumnParser(int _kind, CharSequence[] _src, Object _dst, int _intDefault, double _doubleDefault,
+			DatePattern _pattern, long[] _invalid, int _from, int _to) {
+		this.kind = _kind;
+		this.src = _src;
+		this.dst = _dst;
+		this.intDefault = _intDefault;
+		this.doubleDefault = _doubleDefault;
+		this.pattern = _pattern;
+		this.invalid = _invalid;
+		this.from = _from;
+		this.to = _to;
+	}
+
+	/**
+	 * Parses all values of <code>_src</code> into <code>_dst</code>, splitting the work across
+	 * 	<code>_pool</code> when it is not <code>null</code>.
+	 *
+	 * @return the positions that were filled with the default value
+	 */
+	static BitSet parse(int _kind, CharSequence[] _src, Object _dst, int _dstLength, int _intDefault,
+			double _doubleDefault, DatePattern _pattern, ForkJoinPool _pool) {
+		if (_dstLength < _src.length) {
+			throw new IllegalArgumentException("Destination holds " + _dstLength + " values, but there are " + _src.length + " to parse");
+		}
+		long[] invalid = new long[(_src.length + 63) >>> 6];
+		ColumnParser task = new ColumnParser(_kind, _src, _dst, _intDefault, _doubleDefault, _pattern, invalid, 0, _src.length);
+		if ((_pool == null) || (_src.length <= THRESHOLD)) {
+			task.parseRange();
+		} else {
+			_pool.invoke(task);
+		}
+		return BitSet.valueOf(invalid);
+	}
+
+	protected void compute() {
+		if (this.to - this.from <= THRESHOLD) {
+			parseRange();
+			return;
+		}
+		int middle = ((this.from + this.to) >>> 1) & ~63;
+		invokeAll(new ColumnParser(this.kind, this.src, this.dst, this.intDefault, this.doubleDefault,
+						this.pattern, this.invalid, this.from, middle),
+				new ColumnParser(this.kind, this.src, this.dst, this.intDefault, this.doubleDefault,
+						this.pattern, this.invalid, middle, this.to));
+	}
+
+	private void parseRange() {
+		switch (this.kind) {
+			case INTS:
+				parseInts((int[]) this.dst);
+				break;
+			case DOUBLES:
+				parseDoubles((double[]) this.dst);
+				break;
+			default:
+				parseEpochMillis((long[]) this.dst);
+				break;
+		}
+	}
+
+	private void parseInts(int[] _dst) {
+		for (int i = this.from; i < this.to; i++) {
+			CharSequence value = this.src[i];
+			long scanned = (value == null) ? NumberParser.EMPTY : NumberParser.scan(value, 0, value.length());
+			if (scanned >= 0) {
+				_dst[i] = NumberParser.toInt(scanned);
+				continue;
+			}
+			Number myNumber = (scanned == NumberParser.COMPLEX) ? NumberParser.parseSlow(value.toString().trim()) : null;
+			if (myNumber != null) {
+				_dst[i] = myNumber.intValue();
+			} else {
+				_dst[i] = this.intDefault;
+				this.invalid[i >>> 6] |= 1L << i;
+			}
+		}
+	}
+
+	private void parseDoubles(double[] _dst) {
+		for (int i = this.from; i < this.to; i++) {
+			CharSequence value = this.src[i];
+			long scanned = (value == null) ? NumberParser.EMPTY : NumberParser.scan(value, 0, value.length());
+			if (scanned >= 0) {
+				_dst[i] = NumberParser.toDouble(scanned);
+				continue;
+			}
+			Number myNumber = (scanned == NumberParser.COMPLEX) ? NumberParser.parseSlow(value.toString().trim()) : null;
+			if (myNumber != null) {
+				_dst[i] = myNumber.doubleValue();
+			} else {
+				_dst[i] = this.doubleDefault;
+				this.invalid[i >>> 6] |= 1L << i;
+			}
+		}
+	}
+
+	private void parseEpochMillis(long[] _dst) {
+		for (int i = this.from; i < this.to; i++) {
+			CharSequence value = this.src[i];
+			long millis = DatePattern.INVALID;
+			if (value != null) {
+				int start = 0;
+				int end = value.length();
+				while ((start < end) && (value.charAt(start) <= ' ')) { start++; }
+				while ((end > start) && (value.charAt(end-1) <= ' ')) { end--; }
+				if (start < end) {
+					millis = this.pattern.getEpochMillis(value, start, end - start);
+				}
+			}
+			_dst[i] = millis;
+			if (millis == DatePattern.INVALID) {
+				this.invalid[i >>> 6] |= 1L << i;
+			}
+		}
+	}
+}
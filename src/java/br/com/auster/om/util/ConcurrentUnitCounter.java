@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe version of {@link UnitCounter}, for totals updated by many threads at once.
+ * <p>
+ * It has the same <code>add</code> and <code>get</code> methods, with the same rounding and type
+ * 	checks. Updates go to a <code>LongAdder</code>, which spreads contended updates over several
+ * 	cells, so concurrent adds do not lock or retry on a single value. Reads sum the cells and are
+ * 	only exact when no thread is adding. The counter type is fixed at construction.
+ *
+ * @version $Id$
+ */
+public class ConcurrentUnitCounter {
+
+	private final byte counterTag;
+	private final LongAdder unitCounter = new LongAdder();
+
+
+	public ConcurrentUnitCounter() {
+		this(UnitCounter.UNIT_COUNTER);
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the type is unknown
+	 */
+	public ConcurrentUnitCounter(String _type) {
+		this.counterTag = UnitCounter.tagOf(_type);
+	}
+
+	public String getType() {
+		return UnitCounter.typeOf(this.counterTag);
+	}
+
+	public void reset() {
+		this.unitCounter.reset();
+	}
+
+	public void addUnits(long _units) {
+		this.unitCounter.add(_units);
+	}
+
+	public void addBytes(long _bytes) {
+		checkData();
+		this.unitCounter.add(_bytes);
+	}
+
+	/**
+	 * @throws ArithmeticException if the bytes do not fit a <code>long</code>
+	 */
+	public void addKBytes(double _kbytes) {
+		checkData();
+		this.unitCounter.add(UnitCounter.kbytesToBytes(_kbytes));
+	}
+
+	/**
+	 * @throws ArithmeticException if the bytes do not fit a <code>long</code>
+	 */
+	public void addMBytes(double _mbytes) {
+		checkData();
+		this.unitCounter.add(UnitCounter.mbytesToBytes(_mbytes));
+	}
+
+	/**
+	 * @throws ArithmeticException if the bytes do not fit a <code>long</code>
+	 */
+	public void addGBytes(double _gbytes) {
+		checkData();
+		this.unitCounter.add(UnitCounter.gbytesToBytes(_gbytes));
+	}
+
+	/**
+	 * @throws ArithmeticException if the bytes do not fit a <code>long</code>
+	 */
+	public void addTBytes(double _tbytes) {
+		checkData();
+		this.unitCounter.add(UnitCounter.tbytesToBytes(_tbytes));
+	}
+
+	public void addSeconds(long _seconds) {
+		checkTime();
+		this.unitCounter.add(_seconds);
+	}
+
+	/**
+	 * @throws ArithmeticException if the seconds do not fit a <code>long</code>
+	 */
+	public void addMinutes(double _minutes) {
+		checkTime();
+		this.unitCounter.add(UnitCounter.minutesToSeconds(_minutes));
+	}
+
+	/**
+	 * @throws ArithmeticException if the seconds do not fit a <code>long</code>
+	 */
+	public void addHours(double _hours) {
+		checkTime();
+		this.unitCounter.add(UnitCounter.hoursToSeconds(_hours));
+	}
+
+	/**
+	 * Same as {@link UnitCounter#addCounter(UnitCounter)}.
+	 *
+	 * @throws IllegalArgumentException if the counters have different types
+	 */
+	public void addCounter(UnitCounter _counter) {
+		if (_counter.getTag() != this.counterTag) {
+			throw new IllegalArgumentException("Can't add different and not compatible UNITS. Current UC:" +
+					this.toString() + ".To be added UC:" + _counter.toString() );
+		}
+		this.unitCounter.add(_counter.getUnits());
+	}
+
+	public long getUnits() {
+		return this.unitCounter.sum();
+	}
+
+	public long getSeconds() {
+		return this.unitCounter.sum();
+	}
+
+	public double getMinutes() {
+		return ((double) getUnits() / 60.0);
+	}
+
+	public long getBytes() {
+		return this.unitCounter.sum();
+	}
+
+	public double getKBytes() {
+		return ((double) getUnits() / 1024.0);
+	}
+
+	public double getMBytes() {
+		return ((getUnits() / 1024.0) / 1024.0);
+	}
+
+	public double getGBytes() {
+		return (((getUnits() / 1024.0) / 1024.0) / 1024.0);
+	}
+
+	public double getTBytes() {
+		return ((((getUnits() / 1024.0) / 1024.0) / 1024.0) / 1024.0);
+	}
+
+	/**
+	 * Returns a plain counter with the current type and units.
+	 */
+	public UnitCounter snapshot() {
+		UnitCounter counter = new UnitCounter(getType());
+		counter.setUnits(this.unitCounter.sum());
+		return counter;
+	}
+
+	public String toString() {
+		return UnitCounter.format(getType(), this.unitCounter.sum());
+	}
+
+	private void checkData() {
+		if (this.counterTag != UnitCounter.DATA_TAG) {
+			throw new IllegalArgumentException("Can't add data units to a "+getType()+" counter");
+		}
+	}
+
+	private void checkTime() {
+		if (this.counterTag != UnitCounter.TIME_TAG) {
+			throw new IllegalArgumentException("Can't add time units to a "+getType()+" counter");
+		}
+	}
+}
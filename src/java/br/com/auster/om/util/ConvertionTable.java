@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * An immutable set of convertion factors, as loaded from the <code>om_unit_convertion</code> table.
+ * 	Changes build a new table, so a {@link UnitConvertor} can swap its tables while other threads
+ * 	keep reading the previous one.
+ * <p>
+ * Units are identified by the identifiers of a {@link UnitSymbols} table, and factors are kept in
+ * 	a dense <code>size x size</code> matrix, so a lookup by identifier is a single array access.
+ * 	The matrix is meant for the few tens of units of a billing plan, not for thousands.
+ * <p>
+ * Besides the factors defined, the table resolves every pair of units connected through a chain
+ * 	of factors, in either direction: from <code>HOURS -> TIME = 3600</code> and
+ * 	<code>MINUTES -> TIME = 60</code> it derives <code>HOURS -> MINUTES = 60</code> and
+ * 	<code>TIME -> MINUTES = 1/60</code>. Defined factors always win over derived ones. When
+ * 	factors contradict each other, derived factors follow one of the chains and the contradiction
+ * 	is reported by {@link #getInconsistencies()}. Factors which are not positive are only used
+ * 	for their own pair.
+ *
+ * @version $Id$
+ */
+final class ConvertionTable {
+
+	static final ConvertionTable EMPTY = new ConvertionTable(null, 0, new double[0]);
+
+	// relative difference above which two chains of factors are said to disagree
+	private static final double TOLERANCE = 1E-9;
+
+	private static final int SNAPSHOT_MAGIC = 0x4F4D4356; // "OMCV"
+	private static final int SNAPSHOT_VERSION = 1;
+
+
+	private final int size;
+	// factors as defined, row major by (from, to); NaN where no factor was defined
+	private final double[] direct;
+	// factors to return, with 1 for unrelated pairs and for each unit into itself
+	private final double[] factors;
+	private final List<String> inconsistencies;
+	// the first unit of the group of units connected to each unit
+	private final int[] group;
+
+
+	private ConvertionTable(UnitSymbols _symbols, int _size, double[] _direct) {
+		this.size = _size;
+		this.direct = _direct;
+		this.factors = new double[_direct.length];
+		// scale[u] is how many u make one unit of the first unit reached in its group
+		int[] group = new int[_size];
+		double[] scale = new double[_size];
+		resolveGroups(group, scale);
+		this.group = group;
+		List<String> found = new ArrayList<String>();
+		for (int from = 0; from < _size; from++) {
+			for (int to = 0; to < _size; to++) {
+				int index = (from * _size) + to;
+				double derived = (group[from] == group[to]) ? scale[to] / scale[from] : 1D;
+				double defined = _direct[index];
+				if (from == to) {
+					this.factors[index] = 1D;
+				} else if (Double.isNaN(defined)) {
+					this.factors[index] = derived;
+				} else {
+					this.factors[index] = defined;
+					if (isLink(defined) && (Math.abs(defined - derived) > TOLERANCE * Math.max(defined, derived))) {
+						found.add("Convertion factor from " + _symbols.nameOf(from) + " to " + _symbols.nameOf(to) +
+								" is " + defined + ", but other factors give " + derived);
+					}
+				}
+			}
+		}
+		this.inconsistencies = Collections.unmodifiableList(found);
+	}
+
+	/**
+	 * Splits the units into groups connected by factors, walking each group breadth first from its
+	 * 	lowest unit.
+	 */
+	private void resolveGroups(int[] _group, double[] _scale) {
+		Arrays.fill(_group, -1);
+		int[] queue = new int[this.size];
+		for (int root = 0; root < this.size; root++) {
+			if (_group[root] >= 0) {
+				continue;
+			}
+			_group[root] = root;
+			_scale[root] = 1D;
+			int head = 0;
+			int tail = 0;
+			queue[tail++] = root;
+			while (head < tail) {
+				int unit = queue[head++];
+				for (int other = 0; other < this.size; other++) {
+					if (_group[other] >= 0) {
+						continue;
+					}
+					double forward = this.direct[(unit * this.size) + other];
+					double backward = this.direct[(other * this.size) + unit];
+					if (isLink(forward)) {
+						_scale[other] = _scale[unit] * forward;
+					} else if (isLink(backward)) {
+						_scale[other] = _scale[unit] / backward;
+					} else {
+						continue;
+					}
+					_group[other] = root;
+					queue[tail++] = other;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Tells if a defined factor can be chained with others, which requires it to be positive and finite.
+	 */
+	private static boolean isLink(double _factor) {
+		return (_factor > 0D) && (_factor < Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Reads all rows of the <code>om_unit_convertion</code> table, registering its units in
+	 * 	<code>_symbols</code> once all rows were read.
+	 */
+	static ConvertionTable load(Connection _connection, UnitSymbols _symbols) throws SQLException {
+		List<String> units = new ArrayList<String>();
+		List<Double> rates = new ArrayList<Double>();
+		Statement stmt = null;
+		ResultSet rset = null;
+		try {
+			stmt = _connection.createStatement();
+			rset = stmt.executeQuery("select * from om_unit_convertion");
+			while (rset.next()) {
+				units.add(rset.getString("from_unit"));
+				units.add(rset.getString("to_unit"));
+				rates.add(Double.valueOf(rset.getDouble("convertion_rate")));
+			}
+		} finally {
+			if (rset != null) { rset.close(); }
+			if (stmt != null) { stmt.close(); }
+		}
+		// registered names are kept for good, so a failed load must not register any
+		int[] ids = new int[units.size()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = _symbols.intern(units.get(i));
+		}
+		int size = _symbols.size();
+		double[] direct = newMatrix(size);
+		for (int i = 0; i < rates.size(); i++) {
+			direct[(ids[2 * i] * size) + ids[(2 * i) + 1]] = rates.get(i).doubleValue();
+		}
+		return new ConvertionTable(_symbols, size, direct);
+	}
+
+	/**
+	 * Writes the units and the factors as defined into a snapshot, which {@link #read(ByteBuffer, UnitSymbols)}
+	 * 	turns back into the same table. The layout is a header (magic, version, number of units and
+	 * 	number of factors), the unit names in identifier order as a length and UTF-8 bytes, one
+	 * 	<code>(from, to, rate)</code> entry per factor, and the CRC32 of everything before it.
+	 */
+	ByteBuffer toSnapshot(UnitSymbols _symbols) {
+		byte[][] names = new byte[this.size][];
+		int length = 16 + 8;
+		for (int i = 0; i < this.size; i++) {
+			names[i] = _symbols.nameOf(i).getBytes(StandardCharsets.UTF_8);
+			length += 4 + names[i].length;
+		}
+		int count = 0;
+		for (int i = 0; i < this.direct.length; i++) {
+			if (!Double.isNaN(this.direct[i])) {
+				count++;
+			}
+		}
+		length += count * 16;
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		buffer.putInt(SNAPSHOT_MAGIC);
+		buffer.putInt(SNAPSHOT_VERSION);
+		buffer.putInt(this.size);
+		buffer.putInt(count);
+		for (int i = 0; i < this.size; i++) {
+			buffer.putInt(names[i].length);
+			buffer.put(names[i]);
+		}
+		for (int i = 0; i < this.direct.length; i++) {
+			if (!Double.isNaN(this.direct[i])) {
+				buffer.putInt(i / this.size);
+				buffer.putInt(i % this.size);
+				buffer.putDouble(this.direct[i]);
+			}
+		}
+		CRC32 crc = new CRC32();
+		crc.update(buffer.array(), 0, buffer.position());
+		buffer.putLong(crc.getValue());
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * Reads a snapshot written by {@link #toSnapshot(UnitSymbols)}, registering its units in
+	 * 	<code>_symbols</code> once the whole snapshot was checked. Units get the identifiers they already have in <code>_symbols</code>,
+	 * 	which are the ones of the snapshot when <code>_symbols</code> starts empty.
+	 *
+	 * @throws IOException if the snapshot is damaged or of another version
+	 */
+	static ConvertionTable read(ByteBuffer _snapshot, UnitSymbols _symbols) throws IOException {
+		ByteBuffer buffer = _snapshot.slice();
+		try {
+			if (buffer.getInt() != SNAPSHOT_MAGIC) {
+				throw new IOException("Not a unit convertion snapshot");
+			}
+			int version = buffer.getInt();
+			if (version != SNAPSHOT_VERSION) {
+				throw new IOException("Unsupported unit convertion snapshot version = " + version);
+			}
+			if (buffer.limit() < 24) {
+				throw new IOException("Truncated unit convertion snapshot");
+			}
+			CRC32 crc = new CRC32();
+			ByteBuffer content = buffer.duplicate();
+			content.position(0);
+			content.limit(buffer.limit() - 8);
+			crc.update(content);
+			if (crc.getValue() != buffer.getLong(buffer.limit() - 8)) {
+				throw new IOException("Damaged unit convertion snapshot");
+			}
+			int units = buffer.getInt();
+			int count = buffer.getInt();
+			String[] names = new String[units];
+			for (int i = 0; i < units; i++) {
+				byte[] name = new byte[buffer.getInt()];
+				buffer.get(name);
+				names[i] = new String(name, StandardCharsets.UTF_8);
+			}
+			int[] pairs = new int[count * 2];
+			double[] rates = new double[count];
+			for (int i = 0; i < count; i++) {
+				int from = buffer.getInt();
+				int to = buffer.getInt();
+				if ((from < 0) || (to < 0) || (from >= units) || (to >= units)) {
+					throw new IOException("Damaged unit convertion snapshot");
+				}
+				pairs[2 * i] = from;
+				pairs[(2 * i) + 1] = to;
+				rates[i] = buffer.getDouble();
+			}
+			// registered names are kept for good, so a damaged snapshot must not register any
+			int[] ids = new int[units];
+			for (int i = 0; i < units; i++) {
+				ids[i] = _symbols.intern(names[i]);
+			}
+			int size = _symbols.size();
+			double[] direct = newMatrix(size);
+			for (int i = 0; i < count; i++) {
+				direct[(ids[pairs[2 * i]] * size) + ids[pairs[(2 * i) + 1]]] = rates[i];
+			}
+			return new ConvertionTable(_symbols, size, direct);
+		} catch (BufferUnderflowException bue) {
+			throw new IOException("Truncated unit convertion snapshot", bue);
+		} catch (RuntimeException re) {
+			// negative lengths or unit indexes out of range, with a matching CRC
+			throw new IOException("Damaged unit convertion snapshot", re);
+		}
+	}
+
+	/**
+	 * Returns a copy of this table with one more convertion factor, replacing any previous factor
+	 * 	for the same pair of units.
+	 */
+	ConvertionTable with(UnitSymbols _symbols, String _fromUnit, String _toUnit, double _rate) {
+		int from = _symbols.intern(_fromUnit);
+		int to = _symbols.intern(_toUnit);
+		int newSize = Math.max(this.size, _symbols.size());
+		double[] copy = newMatrix(newSize);
+		for (int i = 0; i < this.size; i++) {
+			System.arraycopy(this.direct, i * this.size, copy, i * newSize, this.size);
+		}
+		copy[(from * newSize) + to] = _rate;
+		return new ConvertionTable(_symbols, newSize, copy);
+	}
+
+	/**
+	 * @see UnitConvertor#getConvertionFactor(int, int)
+	 */
+	double getConvertionFactor(int _fromId, int _toId) {
+		if ((_fromId < 0) || (_toId < 0) || (_fromId >= this.size) || (_toId >= this.size)) {
+			return 1D;
+		}
+		return this.factors[(_fromId * this.size) + _toId];
+	}
+
+	/**
+	 * Tells how a lookup of {@link #getConvertionFactor(int, int)} resolves, as one of the outcomes
+	 * 	counted by {@link UtilMetrics}.
+	 */
+	int lookupKind(int _fromId, int _toId) {
+		if ((_fromId == _toId) && (_fromId >= 0)) {
+			return UtilMetrics.SAME_UNIT;
+		} else if ((_fromId < 0) || (_toId < 0) || (_fromId >= this.size) || (_toId >= this.size)) {
+			return UtilMetrics.MISS;
+		} else if ((this.group[_fromId] == this.group[_toId]) || !Double.isNaN(this.direct[(_fromId * this.size) + _toId])) {
+			return UtilMetrics.HIT;
+		}
+		return UtilMetrics.MISS;
+	}
+
+	/**
+	 * Returns a description of each defined factor which disagrees with the chains of other factors
+	 * 	between the same units.
+	 */
+	List<String> getInconsistencies() {
+		return this.inconsistencies;
+	}
+
+	private static double[] newMatrix(int _size) {
+		double[] matrix = new double[_size * _size];
+		Arrays.fill(matrix, Double.NaN);
+		return matrix;
+	}
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of parsed dates, keyed on the pattern and the text, for
+ * 	{@link DatePattern#getEpochMillis(CharSequence, int, int)}.
+ * <p>
+ * The key and value of an entry never change, and entries are kept in a set associative table:
+ * 	each key may only live in the {@value #WAYS} slots of its set, which are all checked on a
+ * 	lookup. Full sets evict with the CLOCK policy: a hit sets the referenced bit of its entry, the
+ * 	only mutable field, and the hand of the set skips (and unmarks) referenced entries before
+ * 	replacing one. Slots are only changed with compare and set, so neither lookups nor insertions
+ * 	lock. Two threads missing the same key at once may both parse it and store it twice, which
+ * 	only wastes a slot until it is evicted.
+ *
+ * @version $Id$
+ */
+final class DateCache {
+
+	static final int WAYS = 8;
+
+	// longer texts are not dates, and are not cached
+	private static final int MAX_TEXT_LENGTH = 64;
+
+
+	private final AtomicReferenceArray<Entry> slots;
+	private final AtomicIntegerArray hands;
+	private final int setMask;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+
+	/**
+	 * Creates a cache holding at least <code>_capacity</code> dates.
+	 */
+	DateCache(int _capacity) {
+		int sets = 1;
+		while (sets * WAYS < _capacity) {
+			sets <<= 1;
+		}
+		this.slots = new AtomicReferenceArray<Entry>(sets * WAYS);
+		this.hands = new AtomicIntegerArray(sets);
+		this.setMask = sets - 1;
+	}
+
+	int getCapacity() {
+		return this.slots.length();
+	}
+
+	long getHits() {
+		return this.hits.sum();
+	}
+
+	long getMisses() {
+		return this.misses.sum();
+	}
+
+	long getEvictions() {
+		return this.evictions.sum();
+	}
+
+	/**
+	 * Returns the cached result of <code>_pattern</code> for the text, parsing and storing it
+	 * 	on a miss.
+	 */
+	long getEpochMillis(DatePattern _pattern, CharSequence _text, int _offset, int _length) {
+		if (_length > MAX_TEXT_LENGTH) {
+			return _pattern.parseEpochMillis(_text, _offset, _length);
+		}
+		int hash = hash(_pattern, _text, _offset, _length);
+		int base = (hash & this.setMask) * WAYS;
+		for (int i = 0; i < WAYS; i++) {
+			Entry entry = this.slots.get(base + i);
+			if ((entry != null) && (entry.hash == hash) && (entry.pattern == _pattern)
+					&& (matches(entry.text, _text, _offset, _length))) {
+				if (!entry.referenced) {
+					entry.referenced = true;
+				}
+				this.hits.increment();
+				return entry.millis;
+			}
+		}
+		this.misses.increment();
+		long millis = _pattern.parseEpochMillis(_text, _offset, _length);
+		store(base, new Entry(_pattern, _text.subSequence(_offset, _offset + _length).toString(), hash, millis));
+		return millis;
+	}
+
+	private void store(int _base, Entry _entry) {
+		for (int i = 0; i < WAYS; i++) {
+			if ((this.slots.get(_base + i) == null) && (this.slots.compareAndSet(_base + i, null, _entry))) {
+				return;
+			}
+		}
+		int set = _base / WAYS;
+		// two turns of the hand are enough unless other threads keep marking entries
+		for (int step = 0; step < WAYS * 2; step++) {
+			int slot = _base + (this.hands.getAndIncrement(set) & (WAYS - 1));
+			Entry old = this.slots.get(slot);
+			if ((old != null) && (old.referenced)) {
+				old.referenced = false;
+			} else if (this.slots.compareAndSet(slot, old, _entry)) {
+				if (old != null) {
+					this.evictions.increment();
+				}
+				return;
+			}
+		}
+	}
+
+	private static boolean matches(String _cached, CharSequence _text, int _offset, int _length) {
+		if (_cached.length() != _length) {
+			return false;
+		}
+		for (int i = 0; i < _length; i++) {
+			if (_cached.charAt(i) != _text.charAt(_offset + i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int hash(DatePattern _pattern, CharSequence _text, int _offset, int _length) {
+		int h = _pattern.getPattern().hashCode();
+		for (int i = 0; i < _length; i++) {
+			h = (31 * h) + _text.charAt(_offset + i);
+		}
+		h *= 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	private static final class Entry {
+
+		final DatePattern pattern;
+		final String text;
+		final int hash;
+		final long millis;
+		// set by hits, cleared by the clock hand
+		volatile boolean referenced;
+
+
+		Entry(DatePattern _pattern, String _text, int _hash, long _millis) {
+			this.pattern = _pattern;
+			this.text = _text;
+			this.hash = _hash;
+			this.millis = _millis;
+		}
+	}
+}
@@ -0,0 +1,435 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+import java.text.ParseException;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A compiled <code>java.text.SimpleDateFormat</code> pattern. The pattern and its parsed fields
+ * 	never change, while the spare <code>SimpleDateFormat</code> instances and the cache of time
+ * 	zone offsets kept by each instance are updated atomically as it is used. Instances are
+ * 	thread-safe and shared: {@link #compile(String)} compiles each pattern string only once.
+ * <p>
+ * Patterns made only of numeric year (<code>yyyy</code>), month (<code>MM</code>), day, hour of day,
+ * 	minute, second and millisecond fields plus literals are parsed directly into epoch milliseconds,
+ * 	without creating <code>Date</code> or <code>Calendar</code> objects. Whenever the text needs any
+ * 	of the lenient corrections of <code>SimpleDateFormat</code> (out of range fields, unexpected field
+ * 	widths, local times next to a daylight saving transition, etc.) or the pattern uses other fields,
+ * 	the value is handed to a <code>SimpleDateFormat</code>, so results are always the same as the ones
+ * 	of <code>SimpleDateFormat.parse(String)</code> in the default time zone.
+ *
+ * @version $Id$
+ */
+public final class DatePattern {
+
+	/** Returned by the <code>long</code> parsing methods when the text is not a valid date. */
+	public static final long INVALID = Long.MIN_VALUE;
+
+	private static final ConcurrentMap<String, DatePattern> registry = new ConcurrentHashMap<String, DatePattern>();
+
+	// shared by all patterns, or null when disabled
+	private static volatile DateCache cache;
+
+	private static final long DAY = 86400000L;
+	private static final int MIN_YEAR = 1900;
+	private static final int MAX_YEAR = 9999;
+	// no time zone is more than 18 hours away from UTC
+	private static final long MAX_ZONE_OFFSET = 18 * 3600000L;
+
+	private static final int YEAR = 0;
+	private static final int MONTH = 1;
+	private static final int DAY_OF_MONTH = 2;
+	private static final int HOUR_OF_DAY = 3;
+	private static final int MINUTE = 4;
+	private static final int SECOND = 5;
+	private static final int MILLISECOND = 6;
+	private static final int LITERAL = 7;
+
+	private static final int OFFSET_CACHE_SIZE = 256;
+	// spare SimpleDateFormat instances kept per pattern, picked by thread id; a power of two
+	private static final int SPARES = 8;
+	private static final int UNSAFE_DAY = Integer.MIN_VALUE;
+
+
+	private final String pattern;
+	private final SimpleDateFormat prototype;
+	private final AtomicReferenceArray<SimpleDateFormat> spares;
+	private final TimeZone zone;
+	private final ZoneRules rules;
+
+	// compiled elements, or null if the pattern is always handed to SimpleDateFormat
+	private final int[] kinds;
+	private final int[] widths;
+	private final char[] literals;
+
+	// local epoch day in the upper half, its UTC offset (or UNSAFE_DAY) in the lower half
+	private final AtomicLongArray offsets;
+
+
+	private DatePattern(String _pattern) {
+		this.pattern = _pattern;
+		this.prototype = new SimpleDateFormat();
+		this.prototype.applyPattern(_pattern);
+		this.spares = new AtomicReferenceArray<SimpleDateFormat>(SPARES);
+		this.zone = this.prototype.getTimeZone();
+		this.rules = zoneRules(this.zone);
+
+		int[] compiledKinds = new int[_pattern.length()];
+		int[] compiledWidths = new int[_pattern.length()];
+		char[] compiledLiterals = new char[_pattern.length()];
+		int count = compile(_pattern, compiledKinds, compiledWidths, compiledLiterals);
+		boolean usable = (count > 0) && (this.rules != null)
+				&& (this.prototype.getCalendar().getClass() == GregorianCalendar.class);
+		if (usable) {
+			this.kinds = new int[count];
+			this.widths = new int[count];
+			this.literals = new char[count];
+			System.arraycopy(compiledKinds, 0, this.kinds, 0, count);
+			System.arraycopy(compiledWidths, 0, this.widths, 0, count);
+			System.arraycopy(compiledLiterals, 0, this.literals, 0, count);
+			this.offsets = new AtomicLongArray(OFFSET_CACHE_SIZE);
+			for (int i = 0; i < OFFSET_CACHE_SIZE; i++) {
+				this.offsets.set(i, ((long) Integer.MIN_VALUE) << 32);
+			}
+		} else {
+			this.kinds = null;
+			this.widths = null;
+			this.literals = null;
+			this.offsets = null;
+		}
+	}
+
+	/**
+	 * Returns the compiled version of <code>_pattern</code>, compiling it on the first request.
+	 *
+	 * @param _pattern a <code>java.text.SimpleDateFormat</code> pattern
+	 *
+	 * @throws IllegalArgumentException if the pattern is <code>null</code> or invalid
+	 */
+	public static DatePattern compile(String _pattern) {
+		if (_pattern == null) {
+			throw new IllegalArgumentException("Invalid pattern = null");
+		}
+		DatePattern compiled = registry.get(_pattern);
+		if (compiled == null) {
+			compiled = new DatePattern(_pattern);
+			DatePattern previous = registry.putIfAbsent(_pattern, compiled);
+			if (previous != null) {
+				compiled = previous;
+			}
+		}
+		return compiled;
+	}
+
+	public String getPattern() {
+		return this.pattern;
+	}
+
+	/**
+	 * Sets the cache used by {@link #getEpochMillis(CharSequence, int, int)}, or disables it if
+	 * 	<code>_cache</code> is <code>null</code>.
+	 */
+	static void setCache(DateCache _cache) {
+		cache = _cache;
+	}
+
+	static DateCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * Parses <code>_text</code> exactly like <code>SimpleDateFormat.parse(String)</code> does.
+	 */
+	public Date parse(String _text) throws ParseException {
+		return new Date(parseMillis(_text));
+	}
+
+	/**
+	 * Same as {@link #parse(String)}, but results in the epoch milliseconds of the date.
+	 */
+	public long parseMillis(String _text) throws ParseException {
+		long millis = parseFast(_text, 0, _text.length());
+		if (millis != INVALID) {
+			return millis;
+		}
+		int stripe = stripe();
+		SimpleDateFormat sdf = borrow(stripe);
+		try {
+			return sdf.parse(_text).getTime();
+		} finally {
+			this.spares.set(stripe, sdf);
+		}
+	}
+
+	/**
+	 * Parses the <code>_length</code> characters of <code>_text</code> starting at <code>_offset</code>
+	 * 	into epoch milliseconds. No white spaces are skipped. Instead of throwing an exception, this
+	 * 	method results in {@link #INVALID} if the text is not a valid date. Results are taken from
+	 * 	the date cache, when it is enabled through {@link ParserUtils#setDateCacheSize(int)}.
+	 */
+	public long getEpochMillis(CharSequence _text, int _offset, int _length) {
+		DateCache current = cache;
+		if (current != null) {
+			return current.getEpochMillis(this, _text, _offset, _length);
+		}
+		return parseEpochMillis(_text, _offset, _length);
+	}
+
+	/**
+	 * Same as {@link #getEpochMillis(CharSequence, int, int)}, without the cache.
+	 */
+	long parseEpochMillis(CharSequence _text, int _offset, int _length) {
+		long millis = parseFast(_text, _offset, _offset + _length);
+		if (millis != INVALID) {
+			return millis;
+		}
+		int stripe = stripe();
+		SimpleDateFormat sdf = borrow(stripe);
+		try {
+			ParsePosition pos = new ParsePosition(0);
+			Date date = sdf.parse(_text.subSequence(_offset, _offset + _length).toString(), pos);
+			return ((date == null) || (pos.getIndex() == 0)) ? INVALID : date.getTime();
+		} finally {
+			this.spares.set(stripe, sdf);
+		}
+	}
+
+	/**
+	 * Same as {@link #getEpochMillis(CharSequence, int, int)}, but results in the number of days
+	 * 	from 1970-01-01 to the parsed date, in the default time zone.
+	 */
+	public long getEpochDay(CharSequence _text, int _offset, int _length) {
+		long millis = getEpochMillis(_text, _offset, _length);
+		if (millis == INVALID) {
+			return INVALID;
+		}
+		return Math.floorDiv(millis + this.zone.getOffset(millis), DAY);
+	}
+
+	/**
+	 * Takes the spare <code>SimpleDateFormat</code> of <code>_stripe</code>, or clones a new one if
+	 * 	another thread is using it. Nothing is kept per thread, so any number of short lived threads
+	 * 	share the same few instances.
+	 */
+	private SimpleDateFormat borrow(int _stripe) {
+		SimpleDateFormat sdf = this.spares.getAndSet(_stripe, null);
+		return (sdf != null) ? sdf : (SimpleDateFormat) this.prototype.clone();
+	}
+
+	private static int stripe() {
+		long id = Thread.currentThread().getId();
+		return (int) (id ^ (id >>> 3)) & (SPARES - 1);
+	}
+
+	/**
+	 * Parses the text without SimpleDateFormat, resulting in {@link #INVALID} whenever the
+	 * 	result could differ from the one of SimpleDateFormat.
+	 */
+	private long parseFast(CharSequence _text, int _start, int _end) {
+		if (this.kinds == null) {
+			return INVALID;
+		}
+		int year = 1970;
+		int month = 1;
+		int day = 1;
+		int hour = 0;
+		int minute = 0;
+		int second = 0;
+		int milli = 0;
+		int pos = _start;
+		for (int i = 0; i < this.kinds.length; i++) {
+			int kind = this.kinds[i];
+			if (kind == LITERAL) {
+				if ((pos >= _end) || (_text.charAt(pos) != this.literals[i])) {
+					return INVALID;
+				}
+				pos++;
+				continue;
+			}
+			int width = this.widths[i];
+			int last = (width > 0) ? pos + width : Math.min(_end, pos + 9);
+			if (last > _end) {
+				return INVALID;
+			}
+			int value = 0;
+			int digitsStart = pos;
+			for (; pos < last; pos++) {
+				char c = _text.charAt(pos);
+				if ((c < '0') || (c > '9')) {
+					break;
+				}
+				value = (value * 10) + (c - '0');
+			}
+			if ((pos == digitsStart) || ((width > 0) && (pos != last))) {
+				return INVALID;
+			}
+			if ((width == 0) && (pos < _end)) {
+				// SimpleDateFormat could read a longer number or an exponent from here on
+				char c = _text.charAt(pos);
+				if (((c >= '0') && (c <= '9')) || (c == 'E') || (c >= 0x80)) {
+					return INVALID;
+				}
+			}
+			switch (kind) {
+				case YEAR:         year = value; break;
+				case MONTH:        month = value; break;
+				case DAY_OF_MONTH: day = value; break;
+				case HOUR_OF_DAY:  hour = value; break;
+				case MINUTE:       minute = value; break;
+				case SECOND:       second = value; break;
+				default:           milli = value; break;
+			}
+		}
+		if ((year < MIN_YEAR) || (year > MAX_YEAR) || (month < 1) || (month > 12)
+				|| (day < 1) || (day > monthLength(year, month)) || (hour > 23)
+				|| (minute > 59) || (second > 59) || (milli > 999)) {
+			return INVALID;
+		}
+		long epochDay = epochDay(year, month, day);
+		int offset = offsetOf(epochDay);
+		if (offset == UNSAFE_DAY) {
+			return INVALID;
+		}
+		return (epochDay * DAY) + (hour * 3600000L) + (minute * 60000L) + (second * 1000L) + milli - offset;
+	}
+
+	/**
+	 * Returns the UTC offset for every local time of the given day, or {@link #UNSAFE_DAY} if a zone
+	 * 	transition happens around it.
+	 */
+	private int offsetOf(long _epochDay) {
+		int index = (int) _epochDay & (OFFSET_CACHE_SIZE - 1);
+		long entry = this.offsets.get(index);
+		if ((entry >> 32) == _epochDay) {
+			return (int) entry;
+		}
+		long first = (_epochDay * DAY) - MAX_ZONE_OFFSET;
+		long last = ((_epochDay + 1) * DAY) + MAX_ZONE_OFFSET;
+		int offset = this.zone.getOffset(first);
+		ZoneOffsetTransition next = this.rules.nextTransition(Instant.ofEpochMilli(first));
+		if (((next != null) && (next.toEpochSecond() * 1000L <= last)) || (this.zone.getOffset(last) != offset)) {
+			offset = UNSAFE_DAY;
+		}
+		this.offsets.set(index, (_epochDay << 32) | (offset & 0xffffffffL));
+		return offset;
+	}
+
+	/**
+	 * Compiles the pattern the same way SimpleDateFormat does, resulting in the number of elements
+	 * 	or <code>0</code> if some field can not be parsed by {@link #parseFast(CharSequence, int, int)}.
+	 * 	Fields followed by another field have a fixed width; the others have width <code>0</code>.
+	 */
+	private static int compile(String _pattern, int[] _kinds, int[] _widths, char[] _literals) {
+		int count = 0;
+		boolean[] seen = new boolean[LITERAL];
+		boolean inQuote = false;
+		int length = _pattern.length();
+		for (int i = 0; i < length; i++) {
+			char c = _pattern.charAt(i);
+			if (c == '\'') {
+				if ((i + 1 < length) && (_pattern.charAt(i + 1) == '\'')) {
+					i++;
+				} else {
+					inQuote = !inQuote;
+					continue;
+				}
+			} else if (!inQuote && (((c >= 'a') && (c <= 'z')) || ((c >= 'A') && (c <= 'Z')))) {
+				int width = 1;
+				while ((i + 1 < length) && (_pattern.charAt(i + 1) == c)) {
+					width++;
+					i++;
+				}
+				int kind = fieldKind(c, width);
+				if ((kind < 0) || seen[kind]) {
+					return 0;
+				}
+				seen[kind] = true;
+				_kinds[count] = kind;
+				_widths[count++] = width;
+				continue;
+			}
+			_kinds[count] = LITERAL;
+			_literals[count++] = c;
+		}
+		boolean hasField = false;
+		for (int i = 0; i < count; i++) {
+			if (_kinds[i] != LITERAL) {
+				hasField = true;
+				if ((i + 1 == count) || (_kinds[i + 1] == LITERAL)) {
+					_widths[i] = 0;
+				}
+			}
+		}
+		return hasField ? count : 0;
+	}
+
+	private static int fieldKind(char _letter, int _width) {
+		switch (_letter) {
+			// shorter years are interpreted relative to the current century
+			case 'y': return (_width >= 3) ? YEAR : -1;
+			// longer months are month names
+			case 'M': return (_width <= 2) ? MONTH : -1;
+			case 'd': return DAY_OF_MONTH;
+			case 'H': return HOUR_OF_DAY;
+			case 'm': return MINUTE;
+			case 's': return SECOND;
+			case 'S': return MILLISECOND;
+			default:  return -1;
+		}
+	}
+
+	private static ZoneRules zoneRules(TimeZone _zone) {
+		try {
+			return _zone.toZoneId().getRules();
+		} catch (RuntimeException e) {
+			return null;
+		}
+	}
+
+	private static int monthLength(int _year, int _month) {
+		if (_month == 2) {
+			boolean leap = ((_year % 4) == 0) && (((_year % 100) != 0) || ((_year % 400) == 0));
+			return leap ? 29 : 28;
+		}
+		return ((_month == 4) || (_month == 6) || (_month == 9) || (_month == 11)) ? 30 : 31;
+	}
+
+	/**
+	 * Number of days from 1970-01-01 to the given date of the proleptic Gregorian calendar.
+	 */
+	static long epochDay(int _year, int _month, int _day) {
+		long year = (_month <= 2) ? _year - 1 : _year;
+		long era = ((year >= 0) ? year : year - 399) / 400;
+		long yearOfEra = year - (era * 400);
+		long dayOfYear = ((153 * (_month + ((_month > 2) ? -3 : 9)) + 2) / 5) + _day - 1;
+		long dayOfEra = (yearOfEra * 365) + (yearOfEra / 4) - (yearOfEra / 100) + dayOfYear;
+		return (era * 146097) + dayOfEra - 719468;
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+/**
+ * Immutable open addressing table of string keys, matched the same way
+ * 	<code>String.equalsIgnoreCase</code> does. Lookups accept any <code>CharSequence</code>
+ * 	range and never allocate. Changes are made with {@link #with(String, Object)}, which
+ * 	builds a new table, so instances can be published through a <code>volatile</code> field
+ * 	and read without locking.
+ *
+ * @version $Id$
+ */
+final class IgnoreCaseTable<V> {
+
+	private static final IgnoreCaseTable<Object> EMPTY = new IgnoreCaseTable<Object>(new String[0], new Object[0]);
+
+	// insertion order, for listing
+	private final String[] keys;
+	private final Object[] values;
+	// hash slots, kept at most a quarter full
+	private final String[] slotKeys;
+	private final Object[] slotValues;
+	private final int mask;
+
+
+	private IgnoreCaseTable(String[] _keys, Object[] _values) {
+		this.keys = _keys;
+		this.values = _values;
+		int capacity = 8;
+		while (capacity < _keys.length * 4) {
+			capacity <<= 1;
+		}
+		this.slotKeys = new String[capacity];
+		this.slotValues = new Object[capacity];
+		this.mask = capacity - 1;
+		for (int i = 0; i < _keys.length; i++) {
+			int slot = hash(_keys[i], 0, _keys[i].length()) & this.mask;
+			while (this.slotKeys[slot] != null) {
+				slot = (slot + 1) & this.mask;
+			}
+			this.slotKeys[slot] = _keys[i];
+			this.slotValues[slot] = _values[i];
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	static <V> IgnoreCaseTable<V> empty() {
+		return (IgnoreCaseTable<V>) EMPTY;
+	}
+
+	/**
+	 * Returns a copy of this table where <code>_key</code> maps to <code>_value</code>.
+	 */
+	IgnoreCaseTable<V> with(String _key, V _value) {
+		int index = indexOf(_key);
+		String[] newKeys = this.keys;
+		Object[] newValues;
+		if (index < 0) {
+			index = this.keys.length;
+			newKeys = new String[index + 1];
+			System.arraycopy(this.keys, 0, newKeys, 0, index);
+			newKeys[index] = _key;
+			newValues = new Object[index + 1];
+			System.arraycopy(this.values, 0, newValues, 0, index);
+		} else {
+			newValues = this.values.clone();
+		}
+		newValues[index] = _value;
+		return new IgnoreCaseTable<V>(newKeys, newValues);
+	}
+
+	V get(CharSequence _key) {
+		return get(_key, 0, _key.length());
+	}
+
+	/**
+	 * Returns the value mapped to the <code>_length</code> characters of <code>_key</code> starting
+	 * 	at <code>_offset</code>, or <code>null</code> if there is none.
+	 */
+	@SuppressWarnings("unchecked")
+	V get(CharSequence _key, int _offset, int _length) {
+		int slot = hash(_key, _offset, _length) & this.mask;
+		String candidate;
+		while ((candidate = this.slotKeys[slot]) != null) {
+			if (matches(candidate, _key, _offset, _length)) {
+				return (V) this.slotValues[slot];
+			}
+			slot = (slot + 1) & this.mask;
+		}
+		return null;
+	}
+
+	int size() {
+		return this.keys.length;
+	}
+
+	/**
+	 * Returns the <code>_index</code>-th key, in insertion order.
+	 */
+	String keyAt(int _index) {
+		return this.keys[_index];
+	}
+
+	/**
+	 * Returns the <code>_index</code>-th value, in insertion order.
+	 */
+	@SuppressWarnings("unchecked")
+	V valueAt(int _index) {
+		return (V) this.values[_index];
+	}
+
+	private int indexOf(String _key) {
+		for (int i = 0; i < this.keys.length; i++) {
+			if (this.keys[i].equalsIgnoreCase(_key)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean matches(String _candidate, CharSequence _key, int _offset, int _length) {
+		if (_candidate.length() != _length) {
+			return false;
+		}
+		for (int i = 0; i < _length; i++) {
+			char a = _candidate.charAt(i);
+			char b = _key.charAt(_offset + i);
+			if ((a != b) && (fold(a) != fold(b))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int hash(CharSequence _key, int _offset, int _length) {
+		int h = 0;
+		for (int i = 0; i < _length; i++) {
+			h = (31 * h) + fold(_key.charAt(_offset + i));
+		}
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Folds a character so that two characters match ignoring case exactly when their
+	 * 	folded values are equal.
+	 */
+	private static char fold(char _c) {
+		if (_c < 0x80) {
+			return ((_c >= 'A') && (_c <= 'Z')) ? (char) (_c + ('a' - 'A')) : _c;
+		}
+		return Character.toLowerCase(Character.toUpperCase(_c));
+	}
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+/**
+ * Counters of one {@link ParseMethod}, as read by {@link UtilMetrics#getMethodMetrics(ParseMethod)}.
+ * 	Values are read one after the other while other threads may still be counting, so they are
+ * 	only roughly consistent with each other.
+ *
+ * @version $Id$
+ */
+public final class MethodMetrics {
+
+	private final String method;
+	private final long calls;
+	private final long defaults;
+	private final long failures;
+	private final long[] latency;
+
+
+	MethodMetrics(String _method, long _calls, long _defaults, long _failures, long[] _latency) {
+		this.method = _method;
+		this.calls = _calls;
+		this.defaults = _defaults;
+		this.failures = _failures;
+		this.latency = _latency;
+	}
+
+	/**
+	 * Returns the name of the <code>ParserUtils</code> method.
+	 */
+	public String getMethod() {
+		return this.method;
+	}
+
+	public long getCalls() {
+		return this.calls;
+	}
+
+	/**
+	 * Returns how many calls returned the default value, because the value was <code>null</code>,
+	 * 	blank or invalid.
+	 */
+	public long getDefaults() {
+		return this.defaults;
+	}
+
+	/**
+	 * Returns how many calls got a value that was not blank but could not be parsed.
+	 */
+	public long getFailures() {
+		return this.failures;
+	}
+
+	/**
+	 * Returns the number of calls by latency: element <code>i</code> counts the calls that took
+	 * 	from <code>2^i</code> up to <code>2^(i+1)</code> nanoseconds, and element <code>0</code>
+	 * 	also counts the ones under a nanosecond.
+	 */
+	public long[] getLatencyHistogram() {
+		return this.latency.clone();
+	}
+
+	/**
+	 * Returns the upper bound, in nanoseconds, of the latency of the given fraction of calls,
+	 * 	or <code>0</code> if there were no timed calls.
+	 *
+	 * @param _fraction between <code>0</code> and <code>1</code>, such as <code>0.99</code>
+	 */
+	public long getLatencyPercentile(double _fraction) {
+		long total = 0;
+		for (int i = 0; i < this.latency.length; i++) {
+			total += this.latency[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long rank = (long) Math.ceil(_fraction * total);
+		long seen = 0;
+		for (int i = 0; i < this.latency.length; i++) {
+			seen += this.latency[i];
+			if (seen >= rank) {
+				return (i >= 62) ? Long.MAX_VALUE : (1L << (i + 1));
+			}
+		}
+		return Long.MAX_VALUE;
+	}
+
+	public long getMedianNanos() {
+		return getLatencyPercentile(0.5);
+	}
+
+	public long getP99Nanos() {
+		return getLatencyPercentile(0.99);
+	}
+
+	public String toString() {
+		return this.method + ": calls=" + this.calls + ", defaults=" + this.defaults + ", failures=" + this.failures +
+				", p50<" + getMedianNanos() + "ns, p99<" + getP99Nanos() + "ns";
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Stateless formatter for numbers in the <code>en_US</code> format written by
+ * 	{@link ParserUtils#asDoubleString(double)}.
+ * <p>
+ * The output is the same as the one of <code>NumberFormat.getInstance(Locale.US).format(double)</code>:
+ * 	grouping separators every three integer digits, at most three fraction digits rounded half
+ * 	even and no trailing zeros. Just like <code>DecimalFormat</code>, the digits are the ones of
+ * 	<code>Double.toString(double)</code>, and values with more than three fraction digits are
+ * 	rounded on their exact binary value. Since no formatter instance is kept, the methods can be
+ * 	called from any number of threads without thread local state.
+ *
+ * @version $Id$
+ */
+final class NumberFormatter {
+
+	private static final int FRACTION_DIGITS = 3;
+	// below 2^32 a double is closer to its nearest thousandth than to any other, so the digits of
+	// Double.toString never matter and the exact binary value is rounded with integer arithmetic
+	private static final double FAST_LIMIT = 4294967296.0;
+	// 2^-11, below half a thousandth
+	private static final double ZERO_LIMIT = 1.0 / 2048;
+	private static final long SIGNIFICAND_MASK = (1L << 52) - 1;
+
+	private static final String NAN;
+	private static final String INFINITY;
+	static {
+		DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(Locale.US);
+		NAN = symbols.getNaN();
+		INFINITY = symbols.getInfinity();
+	}
+
+
+	private NumberFormatter() {}
+
+	/**
+	 * Formats <code>_value</code> as <code>NumberFormat.getInstance(Locale.US).format(_value)</code>
+	 * 	does. Negative zero, and negative values that round to zero, keep their sign.
+	 */
+	static String format(double _value) {
+		if (Double.isNaN(_value)) {
+			return NAN;
+		}
+		boolean negative = ((_value < 0) || ((_value == 0) && (1 / _value < 0)));
+		double abs = Math.abs(_value);
+		if (Double.isInfinite(abs)) {
+			return negative ? "-" + INFINITY : INFINITY;
+		}
+		if (abs < FAST_LIMIT) {
+			return format(negative, (abs < ZERO_LIMIT) ? 0 : roundThousandths(abs));
+		}
+		BigDecimal decimal = new BigDecimal(Double.toString(abs));
+		if (decimal.scale() > FRACTION_DIGITS) {
+			decimal = new BigDecimal(abs).setScale(FRACTION_DIGITS, RoundingMode.HALF_EVEN);
+		}
+		String plain = decimal.stripTrailingZeros().toPlainString();
+		int point = plain.indexOf('.');
+		int integerDigits = (point < 0) ? plain.length() : point;
+
+		StringBuilder result = new StringBuilder(plain.length() + (integerDigits / 3) + 1);
+		if (negative) {
+			result.append('-');
+		}
+		for (int i = 0; i < integerDigits; i++) {
+			if ((i > 0) && ((integerDigits - i) % 3 == 0)) {
+				result.append(',');
+			}
+			result.append(plain.charAt(i));
+		}
+		if (point >= 0) {
+			result.append(plain, point, plain.length());
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Returns <code>_abs * 1000</code> rounded half even, for a value between 2^-11 and 2^32.
+	 */
+	private static long roundThousandths(double _abs) {
+		long bits = Double.doubleToRawLongBits(_abs);
+		long scaled = (((bits & SIGNIFICAND_MASK) | (1L << 52)) * 1000);
+		int shift = 1075 - (int) (bits >>> 52);
+		if (shift <= 0) {
+			return scaled << -shift;
+		}
+		long quotient = scaled >>> shift;
+		long remainder = scaled & ((1L << shift) - 1);
+		long half = 1L << (shift - 1);
+		if ((remainder > half) || ((remainder == half) && ((quotient & 1) != 0))) {
+			quotient++;
+		}
+		return quotient;
+	}
+
+	private static String format(boolean _negative, long _thousandths) {
+		char[] chars = new char[24];
+		int pos = chars.length;
+		int fraction = (int) (_thousandths % 1000);
+		long integer = _thousandths / 1000;
+		if (fraction != 0) {
+			int digits = FRACTION_DIGITS;
+			while (fraction % 10 == 0) {
+				fraction /= 10;
+				digits--;
+			}
+			for (int i = 0; i < digits; i++) {
+				chars[--pos] = (char) ('0' + (fraction % 10));
+				fraction /= 10;
+			}
+			chars[--pos] = '.';
+		}
+		int count = 0;
+		do {
+			if ((count > 0) && (count % 3 == 0)) {
+				chars[--pos] = ',';
+			}
+			chars[--pos] = (char) ('0' + (integer % 10));
+			integer /= 10;
+			count++;
+		} while (integer > 0);
+		if (_negative) {
+			chars[--pos] = '-';
+		}
+		return new String(chars, pos, chars.length - pos);
+	}
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.NumberFormat;
+import java.text.ParsePosition;
+import java.util.Locale;
+
+/**
+ * Allocation free scanner for numbers in the <code>en_US</code> format expected by
+ * 	{@link ParserUtils#getDouble(String)} and {@link ParserUtils#getInt(String)}.
+ * <p>
+ * The scanner understands the common subset of <code>NumberFormat.getInstance(Locale.US)</code>:
+ * 	an optional leading minus sign, ASCII digits, grouping separators before the decimal point
+ * 	and a single decimal point. Just like <code>DecimalFormat</code>, it stops at the first
+ * 	character outside that set and ignores the rest of the text. Anything the scanner cannot
+ * 	decide exactly (exponents, <code>NaN</code>, non-ASCII characters or more significant digits
+ * 	than a <code>double</code> holds) is reported as {@link #COMPLEX}, and the caller must use
+ * 	{@link #parseSlow(String)} instead.
+ * <p>
+ * A successful scan is packed into a non-negative <code>long</code>: the decimal digits without
+ * 	the point in the lower 54 bits, the number of fraction digits in the next 5 bits and the sign
+ * 	in bit 59.
+ *
+ * @version $Id$
+ */
+final class NumberParser {
+
+	/** Blank or empty input. */
+	static final long EMPTY = -1L;
+	/** The input does not start with a number. */
+	static final long INVALID = -2L;
+	/** The input must be parsed by {@link #parseSlow(String)}. */
+	static final long COMPLEX = -3L;
+
+	/** Returned by {@link #toScaled(long, int)} when the double arithmetic must be used. */
+	static final long UNDECIDED = Long.MIN_VALUE;
+
+	private static final long MANTISSA_MASK = (1L << 54) - 1;
+	private static final int SCALE_SHIFT = 54;
+	private static final long NEGATIVE_BIT = 1L << 59;
+
+	// mantissas below 2^53 and powers of ten up to 10^22 are exact doubles, so
+	//   a single division gives the correctly rounded result
+	private static final long MANTISSA_LIMIT = (1L << 53) / 10;
+	private static final int MAX_SCALE = 22;
+
+	// magnitude up to which toScaled works without doubles
+	private static final long SCALED_LIMIT = 1L << 40;
+
+	private static final double[] DOUBLE_POWERS = new double[MAX_SCALE + 1];
+	private static final long[] LONG_POWERS = new long[19];
+	static {
+		DOUBLE_POWERS[0] = 1D;
+		for (int i = 1; i < DOUBLE_POWERS.length; i++) {
+			DOUBLE_POWERS[i] = DOUBLE_POWERS[i-1] * 10D;
+		}
+		LONG_POWERS[0] = 1L;
+		for (int i = 1; i < LONG_POWERS.length; i++) {
+			LONG_POWERS[i] = LONG_POWERS[i-1] * 10L;
+		}
+	}
+
+	private static final NumberFormat PROTOTYPE = NumberFormat.getInstance(Locale.US);
+
+
+	private NumberParser() {}
+
+	/**
+	 * Scans the characters of <code>_value</code> between <code>_start</code> (inclusive) and
+	 * 	<code>_end</code> (exclusive), skipping leading and trailing white spaces in place.
+	 */
+	static long scan(CharSequence _value, int _start, int _end) {
+		while ((_start < _end) && (_value.charAt(_start) <= ' ')) { _start++; }
+		while ((_end > _start) && (_value.charAt(_end-1) <= ' ')) { _end--; }
+		if (_start == _end) {
+			return EMPTY;
+		}
+		int pos = _start;
+		boolean negative = (_value.charAt(pos) == '-');
+		if (negative) { pos++; }
+		long mantissa = 0;
+		int scale = 0;
+		boolean sawDigit = false;
+		boolean sawDecimal = false;
+		for (; pos < _end; pos++) {
+			char c = _value.charAt(pos);
+			if ((c >= '0') && (c <= '9')) {
+				if ((mantissa >= MANTISSA_LIMIT) || (sawDecimal && (scale == MAX_SCALE))) {
+					return COMPLEX;
+				}
+				mantissa = (mantissa * 10) + (c - '0');
+				if (sawDecimal) { scale++; }
+				sawDigit = true;
+			} else if (c == '.') {
+				if (sawDecimal) { break; }
+				sawDecimal = true;
+			} else if (c == ',') {
+				if (sawDecimal) { break; }
+			} else if ((c == 'E') || (c == 'N') || (c >= 0x80)) {
+				return COMPLEX;
+			} else {
+				break;
+			}
+		}
+		return pack(sawDigit, negative, mantissa, scale);
+	}
+
+	/**
+	 * Same as {@link #scan(CharSequence, int, int)}, reading each byte as an ISO-8859-1 character.
+	 */
+	static long scan(byte[] _value, int _start, int _end) {
+		while ((_start < _end) && ((_value[_start] & 0xff) <= ' ')) { _start++; }
+		while ((_end > _start) && ((_value[_end-1] & 0xff) <= ' ')) { _end--; }
+		if (_start == _end) {
+			return EMPTY;
+		}
+		int pos = _start;
+		boolean negative = (_value[pos] == '-');
+		if (negative) { pos++; }
+		long mantissa = 0;
+		int scale = 0;
+		boolean sawDigit = false;
+		boolean sawDecimal = false;
+		for (; pos < _end; pos++) {
+			int c = _value[pos] & 0xff;
+			if ((c >= '0') && (c <= '9')) {
+				if ((mantissa >= MANTISSA_LIMIT) || (sawDecimal && (scale == MAX_SCALE))) {
+					return COMPLEX;
+				}
+				mantissa = (mantissa * 10) + (c - '0');
+				if (sawDecimal) { scale++; }
+				sawDigit = true;
+			} else if (c == '.') {
+				if (sawDecimal) { break; }
+				sawDecimal = true;
+			} else if (c == ',') {
+				if (sawDecimal) { break; }
+			} else if ((c == 'E') || (c == 'N') || (c >= 0x80)) {
+				return COMPLEX;
+			} else {
+				break;
+			}
+		}
+		return pack(sawDigit, negative, mantissa, scale);
+	}
+
+	/**
+	 * Same as {@link #scan(byte[], int, int)}, using absolute positions of the buffer so its
+	 * 	position and limit are left untouched.
+	 */
+	static long scan(ByteBuffer _value, int _start, int _end) {
+		while ((_start < _end) && ((_value.get(_start) & 0xff) <= ' ')) { _start++; }
+		while ((_end > _start) && ((_value.get(_end-1) & 0xff) <= ' ')) { _end--; }
+		if (_start == _end) {
+			return EMPTY;
+		}
+		int pos = _start;
+		boolean negative = (_value.get(pos) == '-');
+		if (negative) { pos++; }
+		long mantissa = 0;
+		int scale = 0;
+		boolean sawDigit = false;
+		boolean sawDecimal = false;
+		for (; pos < _end; pos++) {
+			int c = _value.get(pos) & 0xff;
+			if ((c >= '0') && (c <= '9')) {
+				if ((mantissa >= MANTISSA_LIMIT) || (sawDecimal && (scale == MAX_SCALE))) {
+					return COMPLEX;
+				}
+				mantissa = (mantissa * 10) + (c - '0');
+				if (sawDecimal) { scale++; }
+				sawDigit = true;
+			} else if (c == '.') {
+				if (sawDecimal) { break; }
+				sawDecimal = true;
+			} else if (c == ',') {
+				if (sawDecimal) { break; }
+			} else if ((c == 'E') || (c == 'N') || (c >= 0x80)) {
+				return COMPLEX;
+			} else {
+				break;
+			}
+		}
+		return pack(sawDigit, negative, mantissa, scale);
+	}
+
+	private static long pack(boolean _sawDigit, boolean _negative, long _mantissa, int _scale) {
+		if (!_sawDigit) {
+			return INVALID;
+		}
+		long packed = _mantissa | ((long) _scale << SCALE_SHIFT);
+		return _negative ? (packed | NEGATIVE_BIT) : packed;
+	}
+
+	/**
+	 * Returns the value of a successful scan as <code>NumberFormat.parse(...).doubleValue()</code> would.
+	 */
+	static double toDouble(long _scanned) {
+		long mantissa = _scanned & MANTISSA_MASK;
+		int scale = (int) (_scanned >>> SCALE_SHIFT) & 0x1f;
+		double value = (scale == 0) ? (double) mantissa : (double) mantissa / DOUBLE_POWERS[scale];
+		return ((_scanned & NEGATIVE_BIT) != 0) ? -value : value;
+	}
+
+	/**
+	 * Returns the value of a successful scan as <code>(long) ((toDouble(_scanned) * 10^_digits) + 0.005)</code>
+	 * 	would, computed with integer arithmetic only, or {@link #UNDECIDED} when that can not be
+	 * 	done with certainty. This is the rounding of the <code>UnitCounter</code> conversions, which
+	 * 	for negative values truncates towards zero after adding 0.005, so <code>-1.00</code> gives
+	 * 	<code>-99</code> hundredths.
+	 * <p>
+	 * The double expression is off the exact value by less than 2^-11 when its magnitude is
+	 * 	below 2^40, so the integer result is used when the exact value is farther than 2^-10 from
+	 * 	the next integer boundary, and otherwise the caller must do the double arithmetic.
+	 */
+	static long toScaled(long _scanned, int _digits) {
+		long mantissa = _scanned & MANTISSA_MASK;
+		int scale = (int) (_scanned >>> SCALE_SHIFT) & 0x1f;
+		if (scale - _digits > 12) {
+			return UNDECIDED;
+		}
+		// the exact value is quotient + (remainder / divisor)
+		long quotient;
+		long remainder = 0;
+		long divisor = 1;
+		if (scale <= _digits) {
+			if (mantissa > SCALED_LIMIT) {
+				return UNDECIDED;
+			}
+			quotient = mantissa * LONG_POWERS[_digits - scale];
+		} else {
+			divisor = LONG_POWERS[scale - _digits];
+			quotient = mantissa / divisor;
+			remainder = mantissa % divisor;
+		}
+		if (quotient >= SCALED_LIMIT) {
+			return UNDECIDED;
+		}
+		// compares remainder / divisor with 0.995 for positive values and with 0.005 for negative ones
+		boolean negative = ((_scanned & NEGATIVE_BIT) != 0);
+		long distance = (1000 * remainder) - ((negative ? 5 : 995) * divisor);
+		if (Math.abs(distance) * 1024 <= 1000 * divisor) {
+			return UNDECIDED;
+		}
+		if (!negative) {
+			return (distance >= 0) ? quotient + 1 : quotient;
+		}
+		long floor = (distance >= 0) ? quotient : quotient - 1;
+		return (floor > 0) ? -floor : 0;
+	}
+
+	/**
+	 * Returns the value of a successful scan as <code>NumberFormat.parse(...).intValue()</code> would.
+	 * 	Integral values are parsed into a <code>Long</code> and so wrap around, while fractional ones
+	 * 	are parsed into a <code>Double</code> and so saturate.
+	 */
+	static int toInt(long _scanned) {
+		long mantissa = _scanned & MANTISSA_MASK;
+		int scale = (int) (_scanned >>> SCALE_SHIFT) & 0x1f;
+		if ((scale > 0) && ((scale >= LONG_POWERS.length) || (mantissa % LONG_POWERS[scale] != 0))) {
+			return (int) toDouble(_scanned);
+		}
+		long value = (scale == 0) ? mantissa : mantissa / LONG_POWERS[scale];
+		return (int) (((_scanned & NEGATIVE_BIT) != 0) ? -value : value);
+	}
+
+	/**
+	 * Parses <code>_value</code> with an <code>en_US</code> <code>NumberFormat</code>, returning
+	 * 	<code>null</code> instead of throwing when it does not start with a number.
+	 */
+	static Number parseSlow(String _value) {
+		NumberFormat parser = (NumberFormat) PROTOTYPE.clone();
+		ParsePosition pos = new ParsePosition(0);
+		Number result = parser.parse(_value, pos);
+		return (pos.getIndex() == 0) ? null : result;
+	}
+
+	/**
+	 * Decodes a byte range as ISO-8859-1 text, for the {@link #parseSlow(String)} fallback.
+	 */
+	static String toString(byte[] _value, int _start, int _end) {
+		return new String(_value, _start, _end - _start, StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * Decodes a buffer range as ISO-8859-1 text, for the {@link #parseSlow(String)} fallback.
+	 */
+	static String toString(ByteBuffer _value, int _start, int _end) {
+		char[] chars = new char[_end - _start];
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = (char) (_value.get(_start + i) & 0xff);
+		}
+		return new String(chars);
+	}
+}
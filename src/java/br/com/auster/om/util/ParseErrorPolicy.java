@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+/**
+ * Tells what the <code>String</code> parsing methods of {@link ParserUtils} do with values that
+ * 	are not blank but can not be parsed. In every case the method still returns its default value,
+ * 	except for {@link #FAIL_FAST}.
+ *
+ * @version $Id$
+ * @see ParserUtils#setErrorPolicy(ParseErrorPolicy)
+ */
+public enum ParseErrorPolicy {
+
+	/** Invalid values are neither counted nor reported. */
+	SILENT,
+
+	/** Invalid values are counted, see {@link ParserUtils#getErrorCount(ParseMethod)}. */
+	COUNTED,
+
+	/**
+	 * Invalid values are counted, and some of them are logged as warnings: at most one per
+	 * 	method in each sampling interval, along with how many were left out since the last one.
+	 */
+	SAMPLED,
+
+	/** Invalid values are counted and make the method throw an <code>IllegalArgumentException</code>. */
+	FAIL_FAST
+}
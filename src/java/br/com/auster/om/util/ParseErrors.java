@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Applies the {@link ParseErrorPolicy} of {@link ParserUtils} to invalid values, and keeps
+ * 	their counters. Reporting an invalid value never creates an exception, except under
+ * 	{@link ParseErrorPolicy#FAIL_FAST}.
+ *
+ * @version $Id$
+ */
+final class ParseErrors {
+
+	private static final Logger log = Logger.getLogger(ParserUtils.class);
+
+	private static final ParseMethod[] METHODS = ParseMethod.values();
+
+	private static volatile ParseErrorPolicy policy = ParseErrorPolicy.SAMPLED;
+	private static volatile long sampleInterval = TimeUnit.SECONDS.toNanos(10);
+
+	private static final LongAdder[] counts = new LongAdder[METHODS.length];
+	// values left out of the log since the last sample
+	private static final LongAdder[] skipped = new LongAdder[METHODS.length];
+	// System.nanoTime() of the last sample logged
+	private static final AtomicLong[] lastSample = new AtomicLong[METHODS.length];
+	static {
+		long longAgo = System.nanoTime() - (1L << 62);
+		for (int i = 0; i < METHODS.length; i++) {
+			counts[i] = new LongAdder();
+			skipped[i] = new LongAdder();
+			lastSample[i] = new AtomicLong(longAgo);
+		}
+	}
+
+
+	private ParseErrors() {}
+
+	static ParseErrorPolicy getPolicy() {
+		return policy;
+	}
+
+	static void setPolicy(ParseErrorPolicy _policy) {
+		if (_policy == null) {
+			throw new IllegalArgumentException("Policy can not be null");
+		}
+		policy = _policy;
+	}
+
+	static long getSampleInterval(TimeUnit _unit) {
+		return _unit.convert(sampleInterval, TimeUnit.NANOSECONDS);
+	}
+
+	static void setSampleInterval(long _interval, TimeUnit _unit) {
+		if (_interval < 0) {
+			throw new IllegalArgumentException("Invalid sample interval = " + _interval);
+		}
+		sampleInterval = _unit.toNanos(_interval);
+	}
+
+	static long getCount(ParseMethod _method) {
+		return counts[_method.ordinal()].sum();
+	}
+
+	static void resetCounts() {
+		for (int i = 0; i < METHODS.length; i++) {
+			counts[i].reset();
+			skipped[i].reset();
+		}
+	}
+
+	/**
+	 * Reports <code>_value</code> as invalid for <code>_method</code>.
+	 *
+	 * @param _pattern the date pattern used, or <code>null</code> for numbers
+	 * @throws IllegalArgumentException under {@link ParseErrorPolicy#FAIL_FAST}
+	 */
+	static void report(ParseMethod _method, CharSequence _value, String _pattern) {
+		UtilMetrics.failed(_method);
+		ParseErrorPolicy current = policy;
+		if (current == ParseErrorPolicy.SILENT) {
+			return;
+		}
+		int index = _method.ordinal();
+		counts[index].increment();
+		if (current == ParseErrorPolicy.FAIL_FAST) {
+			throw new IllegalArgumentException(describe(_method, _value, _pattern));
+		} else if (current == ParseErrorPolicy.SAMPLED) {
+			long now = System.nanoTime();
+			long last = lastSample[index].get();
+			if ((now - last >= sampleInterval) && lastSample[index].compareAndSet(last, now)) {
+				long left = skipped[index].sumThenReset();
+				log.warn(describe(_method, _value, _pattern) +
+						((left > 0) ? " (" + left + " more invalid values since the last report)" : ""));
+			} else {
+				skipped[index].increment();
+			}
+		}
+	}
+
+	private static String describe(ParseMethod _method, CharSequence _value, String _pattern) {
+		return "Invalid value for " + _method.getMethodName() + " = '" + _value + "'" +
+				((_pattern != null) ? " with pattern " + _pattern : "");
+	}
+}
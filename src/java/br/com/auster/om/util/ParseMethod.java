@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+/**
+ * The parsing methods of {@link ParserUtils} whose invalid values and, through {@link UtilMetrics},
+ * 	calls are counted separately. Each constant stands for the <code>String</code> overloads of the
+ * 	method with the same name.
+ *
+ * @version $Id$
+ */
+public enum ParseMethod {
+
+	GET_DOUBLE("getDouble"),
+	GET_INT("getInt"),
+	GET_DATE("getDate"),
+	GET_DATETIME("getDateTime"),
+	GET_UNIT_COUNTER("getUnitCounter");
+
+
+	private final String methodName;
+
+
+	private ParseMethod(String _methodName) {
+		this.methodName = _methodName;
+	}
+
+	/**
+	 * Returns the name of the <code>ParserUtils</code> method.
+	 */
+	public String getMethodName() {
+		return this.methodName;
+	}
+}
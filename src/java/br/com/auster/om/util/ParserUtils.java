@@ -17,11 +17,11 @@
  */
 package br.com.auster.om.util;
 
-import java.text.NumberFormat;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
+import java.nio.ByteBuffer;
+import java.util.BitSet;
 import java.util.Date;
-import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.log4j.Logger;
 
@@ -54,30 +54,16 @@ public class ParserUtils {
 	public static final String EMPTY_STRING = "";
 	public static final Date EMPTY_DATE = new Date(0);
 
+	/**
+	 * Returned by the <code>getEpochMillis</code> and <code>getEpochDay</code> methods when
+	 *   there is no valid date to parse.
+	 */
+	public static final long INVALID_EPOCH = DatePattern.INVALID;
 
-	private static final ThreadLocal dateParser = new ThreadLocal() {
-		protected Object initialValue() {
-			return new SimpleDateFormat();
-		}
-	};
-
-	private static final ThreadLocal dttmParser = new ThreadLocal() {
-		protected Object initialValue() {
-			return new SimpleDateFormat();
-		}
-	};
-
-	private static final ThreadLocal doubleParser = new ThreadLocal() {
-		protected Object initialValue() {
-			return NumberFormat.getInstance(Locale.US);
-		}
-	};
-
-	private static final ThreadLocal intParser = new ThreadLocal() {
-		protected Object initialValue() {
-			return NumberFormat.getInstance(Locale.US);
-		}
-	};
+	/**
+	 * Returned by the <code>tryParseInt</code> methods when there is no valid number to parse.
+	 */
+	public static final long INVALID_INT = Long.MIN_VALUE;
 
 
 	protected ParserUtils() {}
@@ -103,39 +89,132 @@ public class ParserUtils {
 	 * Parses the double value in string format into a <code>double</code>. The expected
 	 *   format for such string is the <code>en_US</code> pattern.
 	 *
-	 *   If input value is not a valid number, then return the value of toReturn argument
+	 *   If input value is not a valid number, then return the value of toReturn argument.
+	 *   Values that are not blank are then handled as told by the current
+	 *   {@link #setErrorPolicy(ParseErrorPolicy) error policy}.
 	 */
 	public static double getDouble(String _value, double toReturn) {
+		if (!UtilMetrics.isEnabled()) {
+			return parseDouble(_value, toReturn);
+		}
+		long start = System.nanoTime();
+		try {
+			return parseDouble(_value, toReturn);
+		} finally {
+			UtilMetrics.called(ParseMethod.GET_DOUBLE, start);
+		}
+	}
+
+	private static double parseDouble(String _value, double toReturn) {
 		if ((_value == null)) {
+			UtilMetrics.defaulted(ParseMethod.GET_DOUBLE);
 			return toReturn;
 		}
-		_value = _value.trim();
-		if (_value.equals(EMPTY_STRING)) {
+		long scanned = NumberParser.scan(_value, 0, _value.length());
+		if (scanned >= 0) {
+			return NumberParser.toDouble(scanned);
+		} else if (scanned == NumberParser.COMPLEX) {
+			Number myNumber = NumberParser.parseSlow(_value.trim());
+			if (myNumber != null) {
+				return myNumber.doubleValue();
+			}
+		}
+		UtilMetrics.defaulted(ParseMethod.GET_DOUBLE);
+		if (scanned != NumberParser.EMPTY) {
+			ParseErrors.report(ParseMethod.GET_DOUBLE, _value, null);
+		}
+		return toReturn;
+	}
+
+	/**
+	 * Parses <code>_value</code> as {@link #getDouble(String, double)} does, without ever reporting
+	 *   invalid values.
+	 *
+	 * @return the parsed value, or <code>Double.NaN</code> if <code>_value</code> is <code>null</code>,
+	 *   blank or not a number
+	 */
+	public static double tryParseDouble(CharSequence _value) {
+		return (_value == null) ? Double.NaN : tryParseDouble(_value, 0, _value.length());
+	}
+
+	/**
+	 * Same as {@link #tryParseDouble(CharSequence)}, for the <code>_length</code> characters
+	 *   of <code>_value</code> starting at <code>_offset</code>.
+	 */
+	public static double tryParseDouble(CharSequence _value, int _offset, int _length) {
+		return getDouble(_value, _offset, _length, Double.NaN);
+	}
+
+	/**
+	 * Same as {@link #getDouble(String, double)}, but parses the <code>_length</code> characters
+	 *   of <code>_value</code> starting at <code>_offset</code>. White spaces are skipped in place
+	 *   and the common <code>en_US</code> formats are parsed without creating any objects.
+	 */
+	public static double getDouble(CharSequence _value, int _offset, int _length, double toReturn) {
+		if (_value == null) {
 			return toReturn;
 		}
-		try {
-			Number myNumber = null;
-			myNumber = ((NumberFormat) doubleParser.get()).parse(_value);
-			return myNumber.doubleValue();
-		} catch (Exception e) {
-			e.printStackTrace();
+		long scanned = NumberParser.scan(_value, _offset, _offset + _length);
+		if (scanned >= 0) {
+			return NumberParser.toDouble(scanned);
+		} else if (scanned == NumberParser.COMPLEX) {
+			Number myNumber = NumberParser.parseSlow(_value.subSequence(_offset, _offset + _length).toString().trim());
+			if (myNumber != null) {
+				return myNumber.doubleValue();
+			}
+		}
+		return toReturn;
+	}
+
+	/**
+	 * Same as {@link #getDouble(CharSequence, int, int, double)}, reading each byte of
+	 *   <code>_value</code> as an ISO-8859-1 character.
+	 */
+	public static double getDouble(byte[] _value, int _offset, int _length, double toReturn) {
+		if (_value == null) {
 			return toReturn;
 		}
+		long scanned = NumberParser.scan(_value, _offset, _offset + _length);
+		if (scanned >= 0) {
+			return NumberParser.toDouble(scanned);
+		} else if (scanned == NumberParser.COMPLEX) {
+			Number myNumber = NumberParser.parseSlow(NumberParser.toString(_value, _offset, _offset + _length).trim());
+			if (myNumber != null) {
+				return myNumber.doubleValue();
+			}
+		}
+		return toReturn;
 	}
 
 	/**
-	 * Converts a double value into its String format
+	 * Same as {@link #getDouble(byte[], int, int, double)}. The offset is an absolute index into
+	 *   <code>_value</code>, whose position and limit are not changed.
+	 */
+	public static double getDouble(ByteBuffer _value, int _offset, int _length, double toReturn) {
+		if (_value == null) {
+			return toReturn;
+		}
+		long scanned = NumberParser.scan(_value, _offset, _offset + _length);
+		if (scanned >= 0) {
+			return NumberParser.toDouble(scanned);
+		} else if (scanned == NumberParser.COMPLEX) {
+			Number myNumber = NumberParser.parseSlow(NumberParser.toString(_value, _offset, _offset + _length).trim());
+			if (myNumber != null) {
+				return myNumber.doubleValue();
+			}
+		}
+		return toReturn;
+	}
+
+	/**
+	 * Converts a double value into its String format, as an <code>en_US</code>
+	 *   <code>NumberFormat</code> does. No formatter is kept per thread.
 	 *
 	 * @param _double
 	 * @return
 	 */
 	public static String asDoubleString(double _double) {
-		try {
-			return ((NumberFormat) doubleParser.get()).format(_double);
-		} catch (Exception e) {
-			e.printStackTrace();
-			return null;
-		}
+		return NumberFormatter.format(_double);
 	}
 
 	/**
@@ -152,25 +231,123 @@ public class ParserUtils {
 	 *   format for such string is the <code>en_US</code> pattern.
 	 *
 	 *   If the input value is not valid, ie, null, empty string or any NOT number string, then this
-	 *   method will return the toReturn input argument
+	 *   method will return the toReturn input argument. Values that are not blank are then handled
+	 *   as told by the current {@link #setErrorPolicy(ParseErrorPolicy) error policy}.
 	 */
 	public static int getInt(String _value, int toReturn) {
+		if (!UtilMetrics.isEnabled()) {
+			return parseInt(_value, toReturn);
+		}
+		long start = System.nanoTime();
+		try {
+			return parseInt(_value, toReturn);
+		} finally {
+			UtilMetrics.called(ParseMethod.GET_INT, start);
+		}
+	}
+
+	private static int parseInt(String _value, int toReturn) {
 		if (_value == null) {
+			UtilMetrics.defaulted(ParseMethod.GET_INT);
 			return toReturn;
 		}
-		_value = _value.trim();
-		if (_value.equals(EMPTY_STRING)) {
+		long scanned = NumberParser.scan(_value, 0, _value.length());
+		if (scanned >= 0) {
+			return NumberParser.toInt(scanned);
+		} else if (scanned == NumberParser.COMPLEX) {
+			Number myNumber = NumberParser.parseSlow(_value.trim());
+			if (myNumber != null) {
+				return myNumber.intValue();
+			}
+		}
+		UtilMetrics.defaulted(ParseMethod.GET_INT);
+		if (scanned != NumberParser.EMPTY) {
+			ParseErrors.report(ParseMethod.GET_INT, _value, null);
+		}
+		return toReturn;
+	}
+
+	/**
+	 * Parses <code>_value</code> as {@link #getInt(String, int)} does, without ever reporting
+	 *   invalid values.
+	 *
+	 * @return the parsed value, or {@link #INVALID_INT} if <code>_value</code> is <code>null</code>,
+	 *   blank or not a number
+	 */
+	public static long tryParseInt(CharSequence _value) {
+		return (_value == null) ? INVALID_INT : tryParseInt(_value, 0, _value.length());
+	}
+
+	/**
+	 * Same as {@link #tryParseInt(CharSequence)}, for the <code>_length</code> characters
+	 *   of <code>_value</code> starting at <code>_offset</code>.
+	 */
+	public static long tryParseInt(CharSequence _value, int _offset, int _length) {
+		long scanned = NumberParser.scan(_value, _offset, _offset + _length);
+		if (scanned >= 0) {
+			return NumberParser.toInt(scanned);
+		} else if (scanned == NumberParser.COMPLEX) {
+			Number myNumber = NumberParser.parseSlow(_value.subSequence(_offset, _offset + _length).toString().trim());
+			if (myNumber != null) {
+				return myNumber.intValue();
+			}
+		}
+		return INVALID_INT;
+	}
+
+	/**
+	 * Same as {@link #getInt(String, int)}, but parses the <code>_length</code> characters
+	 *   of <code>_value</code> starting at <code>_offset</code>. White spaces are skipped in place
+	 *   and the common <code>en_US</code> formats are parsed without creating any objects.
+	 */
+	public static int getInt(CharSequence _value, int _offset, int _length, int toReturn) {
+		if (_value == null) {
 			return toReturn;
 		}
-		try {
-			Number myNumber = null;
-			myNumber = ((NumberFormat) intParser.get()).parse(_value);
-			return myNumber.intValue();
-		} catch (Exception e) {
-			e.printStackTrace();
+		long value = tryParseInt(_value, _offset, _length);
+		return (value == INVALID_INT) ? toReturn : (int) value;
+	}
+
+	/**
+	 * Same as {@link #getInt(CharSequence, int, int, int)}, reading each byte of
+	 *   <code>_value</code> as an ISO-8859-1 character.
+	 */
+	public static int getInt(byte[] _value, int _offset, int _length, int toReturn) {
+		if (_value == null) {
+			return toReturn;
+		}
+		long scanned = NumberParser.scan(_value, _offset, _offset + _length);
+		if (scanned >= 0) {
+			return NumberParser.toInt(scanned);
+		} else if (scanned == NumberParser.COMPLEX) {
+			Number myNumber = NumberParser.parseSlow(NumberParser.toString(_value, _offset, _offset + _length).trim());
+			if (myNumber != null) {
+				return myNumber.intValue();
+			}
+		}
+		return toReturn;
+	}
+
+	/**
+	 * Same as {@link #getInt(byte[], int, int, int)}. The offset is an absolute index into
+	 *   <code>_value</code>, whose position and limit are not changed.
+	 */
+	public static int getInt(ByteBuffer _value, int _offset, int _length, int toReturn) {
+		if (_value == null) {
 			return toReturn;
 		}
+		long scanned = NumberParser.scan(_value, _offset, _offset + _length);
+		if (scanned >= 0) {
+			return NumberParser.toInt(scanned);
+		} else if (scanned == NumberParser.COMPLEX) {
+			Number myNumber = NumberParser.parseSlow(NumberParser.toString(_value, _offset, _offset + _length).trim());
+			if (myNumber != null) {
+				return myNumber.intValue();
+			}
+		}
+		return toReturn;
 	}
+
 	/**
 	 * Parses the date value in string format into a <code>java.util.Date</code>.
 	 * <p>
@@ -185,24 +362,11 @@ public class ParserUtils {
 	 * Parses the date value in string format into a <code>java.util.Date</code>.
 	 * <p>
 	 * The pattern should be specified in the <code>java.text.SimpleDateFormat</code>
-	 *   style.
+	 *   style. Values that are not blank but can not be parsed are handled as told by the
+	 *   current {@link #setErrorPolicy(ParseErrorPolicy) error policy}.
 	 */
 	public static Date getDate(String _value, String _pattern) {
-		if (_value == null) {
-			return null;
-		}
-		_value = _value.trim();
-		if (_value.equals(EMPTY_STRING)) {
-			return null;
-		}
-		try {
-			SimpleDateFormat sdf = (SimpleDateFormat) dateParser.get();
-			sdf.applyPattern(_pattern);
-			return sdf.parse(_value);
-		} catch (Exception e) {
-			e.printStackTrace();
-			return null;
-		}
+		return getDate(_value, 0, _pattern);
 	}
 
 	/**
@@ -221,27 +385,23 @@ public class ParserUtils {
 	 *   of the date pattern.
 	 */
 	public static Date getDate(String _value, long _adjustment, String _pattern) {
-		if (_value == null) {
-			return null;
-		}
-		_value = _value.trim();
-		if (_value.equals(EMPTY_STRING)) {
-			return null;
+		if (!UtilMetrics.isEnabled()) {
+			return parseDate(_value, _adjustment, _pattern);
 		}
+		long start = System.nanoTime();
 		try {
-			SimpleDateFormat sdf = (SimpleDateFormat) dateParser.get();
-			sdf.applyPattern(_pattern);
-
-			Calendar cal = Calendar.getInstance();
-			cal.setTime(sdf.parse(_value));
-			cal.add(Calendar.MILLISECOND, (int)_adjustment);
-			return cal.getTime();
-		} catch (Exception e) {
-			e.printStackTrace();
-			return null;
+			return parseDate(_value, _adjustment, _pattern);
+		} finally {
+			UtilMetrics.called(ParseMethod.GET_DATE, start);
 		}
 	}
 
+	private static Date parseDate(String _value, long _adjustment, String _pattern) {
+		long millis = parseEpochMillis(ParseMethod.GET_DATE, _value, _pattern);
+		// same as Calendar.add(Calendar.MILLISECOND, (int)_adjustment)
+		return (millis == INVALID_EPOCH) ? null : new Date(millis + (int)_adjustment);
+	}
+
 	/**
 	 * Parses the date/time value in string format into a <code>java.util.Date</code>.
 	 * <p>
@@ -256,21 +416,288 @@ public class ParserUtils {
 	 * Parses the date/time value in string format into a <code>java.util.Date</code>.
 	 * <p>
 	 * The pattern should be specified in the <code>java.text.SimpleDateFormat</code>
-	 *   style.
+	 *   style. Values that are not blank but can not be parsed are handled as told by the
+	 *   current {@link #setErrorPolicy(ParseErrorPolicy) error policy}.
 	 */
 	public static Date getDateTime(String _value, String _pattern) {
+		if (!UtilMetrics.isEnabled()) {
+			return parseDateTime(_value, _pattern);
+		}
+		long start = System.nanoTime();
+		try {
+			return parseDateTime(_value, _pattern);
+		} finally {
+			UtilMetrics.called(ParseMethod.GET_DATETIME, start);
+		}
+	}
+
+	private static Date parseDateTime(String _value, String _pattern) {
+		long millis = parseEpochMillis(ParseMethod.GET_DATETIME, _value, _pattern);
+		return (millis == INVALID_EPOCH) ? null : new Date(millis);
+	}
+
+	/**
+	 * Parses a date for the <code>getDate</code> and <code>getDateTime</code> methods, reporting
+	 *   invalid values and patterns to the error policy.
+	 */
+	private static long parseEpochMillis(ParseMethod _method, String _value, String _pattern) {
 		if (_value == null) {
-			return null;
+			UtilMetrics.defaulted(_method);
+			return INVALID_EPOCH;
+		}
+		int start = 0;
+		int end = _value.length();
+		while ((start < end) && (_value.charAt(start) <= ' ')) { start++; }
+		while ((end > start) && (_value.charAt(end-1) <= ' ')) { end--; }
+		if (start == end) {
+			UtilMetrics.defaulted(_method);
+			return INVALID_EPOCH;
 		}
-		_value = _value.trim();
+		long millis = INVALID_EPOCH;
 		try {
-			SimpleDateFormat sdf = (SimpleDateFormat) dttmParser.get();
-			sdf.applyPattern(_pattern);
-			return sdf.parse(_value);
-		} catch (Exception e) {
-			log.error("Problems Converting Date. See problem below. Null WAS returned. Value:" + _value + ".Pattern:" + _pattern , e);
-			return null;
+			millis = DatePattern.compile(_pattern).getEpochMillis(_value, start, end - start);
+		} catch (IllegalArgumentException iae) {
+			// invalid pattern, reported below as an invalid value
+		}
+		if (millis == INVALID_EPOCH) {
+			UtilMetrics.defaulted(_method);
+			ParseErrors.report(_method, _value, _pattern);
 		}
+		return millis;
+	}
+
+	/**
+	 * Parses the date value in string format into the number of milliseconds since
+	 *   1970-01-01T00:00:00Z, without creating any <code>Date</code> or <code>Calendar</code>.
+	 * <p>
+	 * This method executes its sibling {@link #getEpochMillis(String, String)} using <code>_pattern</code>
+	 *   as {@value #DEFAULT_DATE_PATTERN}.
+	 */
+	public static long getEpochMillis(String _value) {
+		return getEpochMillis(_value, DEFAULT_DATE_PATTERN);
+	}
+
+	/**
+	 * Same as {@link #getDate(String, String)}, but results in the epoch milliseconds of the date,
+	 *   or {@link #INVALID_EPOCH} where <code>getDate</code> would return <code>null</code>. Invalid
+	 *   values are never reported to the error policy, so this is also the exception free way to
+	 *   check a date.
+	 *
+	 * @throws IllegalArgumentException if the pattern is invalid
+	 */
+	public static long getEpochMillis(String _value, String _pattern) {
+		if (_value == null) {
+			return INVALID_EPOCH;
+		}
+		return getEpochMillis(_value, 0, _value.length(), _pattern);
+	}
+
+	/**
+	 * Same as {@link #getEpochMillis(String, String)}, but parses the <code>_length</code> characters
+	 *   of <code>_value</code> starting at <code>_offset</code>. White spaces are skipped in place.
+	 *
+	 * @throws IllegalArgumentException if the pattern is invalid
+	 */
+	public static long getEpochMillis(CharSequence _value, int _offset, int _length, String _pattern) {
+		if (_value == null) {
+			return INVALID_EPOCH;
+		}
+		int end = _offset + _length;
+		while ((_offset < end) && (_value.charAt(_offset) <= ' ')) { _offset++; }
+		while ((end > _offset) && (_value.charAt(end-1) <= ' ')) { end--; }
+		if (_offset == end) {
+			return INVALID_EPOCH;
+		}
+		return DatePattern.compile(_pattern).getEpochMillis(_value, _offset, end - _offset);
+	}
+
+	/**
+	 * Parses the date value in string format into the number of days since 1970-01-01, in the
+	 *   default time zone.
+	 * <p>
+	 * This method executes its sibling {@link #getEpochDay(String, String)} using <code>_pattern</code>
+	 *   as {@value #DEFAULT_DATE_PATTERN}.
+	 */
+	public static long getEpochDay(String _value) {
+		return getEpochDay(_value, DEFAULT_DATE_PATTERN);
+	}
+
+	/**
+	 * Same as {@link #getEpochMillis(String, String)}, but results in the number of days since
+	 *   1970-01-01 of the parsed date, in the default time zone.
+	 *
+	 * @throws IllegalArgumentException if the pattern is invalid
+	 */
+	public static long getEpochDay(String _value, String _pattern) {
+		if (_value == null) {
+			return INVALID_EPOCH;
+		}
+		return getEpochDay(_value, 0, _value.length(), _pattern);
+	}
+
+	/**
+	 * Same as {@link #getEpochDay(String, String)}, but parses the <code>_length</code> characters
+	 *   of <code>_value</code> starting at <code>_offset</code>. White spaces are skipped in place.
+	 *
+	 * @throws IllegalArgumentException if the pattern is invalid
+	 */
+	public static long getEpochDay(CharSequence _value, int _offset, int _length, String _pattern) {
+		if (_value == null) {
+			return INVALID_EPOCH;
+		}
+		int end = _offset + _length;
+		while ((_offset < end) && (_value.charAt(_offset) <= ' ')) { _offset++; }
+		while ((end > _offset) && (_value.charAt(end-1) <= ' ')) { end--; }
+		if (_offset == end) {
+			return INVALID_EPOCH;
+		}
+		return DatePattern.compile(_pattern).getEpochDay(_value, _offset, end - _offset);
+	}
+
+	/**
+	 * Parses a whole column of integer values, with the same rules as {@link #getInt(String, int)}.
+	 *   Each <code>src[i]</code> is parsed into <code>dst[i]</code>; values that are <code>null</code>,
+	 *   blank or not a number are replaced by <code>defaultValue</code>.
+	 *
+	 * @return the positions of <code>src</code> that were replaced by <code>defaultValue</code>
+	 */
+	public static BitSet parseInts(CharSequence[] src, int[] dst, int defaultValue) {
+		return parseInts(src, dst, defaultValue, null);
+	}
+
+	/**
+	 * Same as {@link #parseInts(CharSequence[], int[], int)}, but large columns are split across
+	 *   the threads of <code>pool</code>. If <code>pool</code> is <code>null</code>, the column is
+	 *   parsed by the calling thread.
+	 */
+	public static BitSet parseInts(CharSequence[] src, int[] dst, int defaultValue, ForkJoinPool pool) {
+		return ColumnParser.parse(ColumnParser.INTS, src, dst, dst.length, defaultValue, 0D, null, pool);
+	}
+
+	/**
+	 * Parses a whole column of double values, with the same rules as {@link #getDouble(String, double)}.
+	 *   Each <code>src[i]</code> is parsed into <code>dst[i]</code>; values that are <code>null</code>,
+	 *   blank or not a number are replaced by <code>defaultValue</code>.
+	 *
+	 * @return the positions of <code>src</code> that were replaced by <code>defaultValue</code>
+	 */
+	public static BitSet parseDoubles(CharSequence[] src, double[] dst, double defaultValue) {
+		return parseDoubles(src, dst, defaultValue, null);
+	}
+
+	/**
+	 * Same as {@link #parseDoubles(CharSequence[], double[], double)}, but large columns are split
+	 *   across the threads of <code>pool</code>. If <code>pool</code> is <code>null</code>, the column
+	 *   is parsed by the calling thread.
+	 */
+	public static BitSet parseDoubles(CharSequence[] src, double[] dst, double defaultValue, ForkJoinPool pool) {
+		return ColumnParser.parse(ColumnParser.DOUBLES, src, dst, dst.length, 0, defaultValue, null, pool);
+	}
+
+	/**
+	 * Parses a whole column of dates, with the same rules as {@link #getEpochMillis(String, String)}.
+	 *   Each <code>src[i]</code> is parsed into <code>dst[i]</code>; values that are <code>null</code>,
+	 *   blank or not a valid date are replaced by {@link #INVALID_EPOCH}.
+	 *
+	 * @return the positions of <code>src</code> that were replaced by {@link #INVALID_EPOCH}
+	 *
+	 * @throws IllegalArgumentException if the pattern is invalid
+	 */
+	public static BitSet parseEpochMillis(CharSequence[] src, long[] dst, String pattern) {
+		return parseEpochMillis(src, dst, pattern, null);
+	}
+
+	/**
+	 * Same as {@link #parseEpochMillis(CharSequence[], long[], String)}, but large columns are split
+	 *   across the threads of <code>pool</code>. If <code>pool</code> is <code>null</code>, the column
+	 *   is parsed by the calling thread.
+	 */
+	public static BitSet parseEpochMillis(CharSequence[] src, long[] dst, String pattern, ForkJoinPool pool) {
+		return ColumnParser.parse(ColumnParser.EPOCH_MILLIS, src, dst, dst.length, 0, 0D, DatePattern.compile(pattern), pool);
+	}
+
+	/**
+	 * Sets how the <code>String</code> versions of the <code>getDouble</code>, <code>getInt</code>,
+	 *   <code>getDate</code> and <code>getDateTime</code> methods, and <code>getUnitCounter</code>,
+	 *   handle values that are not blank but can not be parsed. The default is {@link ParseErrorPolicy#SAMPLED}. The <code>tryParse</code>,
+	 *   epoch, offset based and batch methods never report invalid values.
+	 */
+	public static void setErrorPolicy(ParseErrorPolicy _policy) {
+		ParseErrors.setPolicy(_policy);
+	}
+
+	public static ParseErrorPolicy getErrorPolicy() {
+		return ParseErrors.getPolicy();
+	}
+
+	/**
+	 * Sets the minimum time between two invalid values logged for the same method under
+	 *   {@link ParseErrorPolicy#SAMPLED}. The default is 10 seconds.
+	 */
+	public static void setErrorSampleInterval(long _interval, TimeUnit _unit) {
+		ParseErrors.setSampleInterval(_interval, _unit);
+	}
+
+	public static long getErrorSampleInterval(TimeUnit _unit) {
+		return ParseErrors.getSampleInterval(_unit);
+	}
+
+	/**
+	 * Returns how many invalid values were counted for <code>_method</code> since the last
+	 *   {@link #resetErrorCounts()}. Nothing is counted under {@link ParseErrorPolicy#SILENT}.
+	 */
+	public static long getErrorCount(ParseMethod _method) {
+		return ParseErrors.getCount(_method);
+	}
+
+	public static void resetErrorCounts() {
+		ParseErrors.resetCounts();
+	}
+
+	/**
+	 * Enables a cache of parsed dates holding about <code>_size</code> entries, keyed on the pattern
+	 *   and the text, or disables it if <code>_size</code> is <code>0</code>. It is used by every
+	 *   date method and pays off when the same dates are parsed over and over, as in the records
+	 *   of a billing cycle, mainly for patterns which are handed to <code>SimpleDateFormat</code>.
+	 *   Each call starts an empty cache, with its statistics at zero. It is disabled by default.
+	 */
+	public static void setDateCacheSize(int _size) {
+		if (_size < 0) {
+			throw new IllegalArgumentException("Invalid date cache size = " + _size);
+		}
+		DatePattern.setCache((_size == 0) ? null : new DateCache(_size));
+	}
+
+	/**
+	 * Returns how many dates the cache holds, or <code>0</code> if it is disabled.
+	 */
+	public static int getDateCacheSize() {
+		DateCache cache = DatePattern.getCache();
+		return (cache == null) ? 0 : cache.getCapacity();
+	}
+
+	/**
+	 * Returns how many dates were found in the cache since it was enabled.
+	 */
+	public static long getDateCacheHits() {
+		DateCache cache = DatePattern.getCache();
+		return (cache == null) ? 0 : cache.getHits();
+	}
+
+	/**
+	 * Returns how many dates were parsed and stored in the cache since it was enabled.
+	 */
+	public static long getDateCacheMisses() {
+		DateCache cache = DatePattern.getCache();
+		return (cache == null) ? 0 : cache.getMisses();
+	}
+
+	/**
+	 * Returns how many dates were dropped from the full cache since it was enabled.
+	 */
+	public static long getDateCacheEvictions() {
+		DateCache cache = DatePattern.getCache();
+		return (cache == null) ? 0 : cache.getEvictions();
 	}
 
 	/**
@@ -296,54 +723,41 @@ public class ParserUtils {
 		return ret;
 	}
 
+	/**
+	 * Builds a counter holding the usage quantity <code>val</code>, expressed in the unit type
+	 *   <code>type</code>. The type token is resolved by the {@link UnitTypeRegistry#getDefault()
+	 *   default unit type registry}; unknown types are counted as minutes. Quantities that can not
+	 *   be parsed are handled by the {@link #setErrorPolicy(ParseErrorPolicy) error policy} and
+	 *   count as zero.
+	 *
+	 * @return the new counter, or <code>null</code> if any argument is <code>null</code>
+	 */
 	public static UnitCounter getUnitCounter(String type, String val) {
+		if (!UtilMetrics.isEnabled()) {
+			return parseUnitCounter(type, val);
+		}
+		long start = System.nanoTime();
+		try {
+			return parseUnitCounter(type, val);
+		} finally {
+			UtilMetrics.called(ParseMethod.GET_UNIT_COUNTER, start);
+		}
+	}
+
+	private static UnitCounter parseUnitCounter(String type, String val) {
 		UnitCounter counter = null;
 		if ((type != null) && (val != null)) {
-			val = val.trim();
-			counter = new UnitCounter();
-			if (type.equalsIgnoreCase("MINUTES")) {
-				counter.setType(UnitCounter.TIME_COUNTER);
-				counter.addMinutes(ParserUtils.getDouble(val));
-			} else if (type.equalsIgnoreCase("SECONDS")) {
-				counter.setType(UnitCounter.TIME_COUNTER);
-				counter.addSeconds(ParserUtils.getInt(val));
-			} else if (type.equalsIgnoreCase("KB")) {
-				counter.setType(UnitCounter.DATA_COUNTER);
-				counter.addKBytes(ParserUtils.getDouble(val));
-			} else if (type.equalsIgnoreCase("KBYTES")) {
-				counter.setType(UnitCounter.DATA_COUNTER);
-				counter.addKBytes(ParserUtils.getDouble(val));
-			} else if (type.equalsIgnoreCase("MB")) {
-				counter.setType(UnitCounter.DATA_COUNTER);
-				counter.addMBytes(ParserUtils.getDouble(val));
-			} else if (type.equalsIgnoreCase("GB")) {
-				counter.setType(UnitCounter.DATA_COUNTER);
-				counter.addGBytes(ParserUtils.getDouble(val));
-			} else if (type.equalsIgnoreCase("TB")) {
-				counter.setType(UnitCounter.DATA_COUNTER);
-				counter.addTBytes(ParserUtils.getDouble(val));
-			} else if (type.equalsIgnoreCase(" B")) {
-				counter.setType(UnitCounter.DATA_COUNTER);
-				counter.addBytes(ParserUtils.getInt(val));
-			} else if (type.equalsIgnoreCase("DOWNLOAD")) {
-				counter.setType(UnitCounter.UNIT_COUNTER);
-				counter.addUnits(ParserUtils.getInt(val));
-			} else if (type.equalsIgnoreCase("EVENT")) {
-				counter.setType(UnitCounter.UNIT_COUNTER);
-				counter.addUnits(ParserUtils.getInt(val));
-			} else if (type.equalsIgnoreCase("EVENTO")) {
-				counter.setType(UnitCounter.UNIT_COUNTER);
-				counter.addUnits(ParserUtils.getInt(val));
-			} else if (type.equalsIgnoreCase("UNIT")) {
-				counter.setType(UnitCounter.UNIT_COUNTER);
-				counter.addUnits(ParserUtils.getInt(val));
-			} else if (type.equalsIgnoreCase("TIME")) {
-				counter.setType(UnitCounter.TIME_COUNTER);
-				counter.addSeconds(ParserUtils.getInt(val));
-			} else {
-				counter.setType(UnitCounter.TIME_COUNTER);
-				counter.addMinutes(ParserUtils.getDouble(val));
+			UnitIngester ingester = UnitTypeRegistry.getDefault().lookup(type);
+			counter = new UnitCounter(ingester.getCounterType());
+			long units = ingester.parseUnits(val, 0, val.length());
+			if (units == UnitIngester.INVALID_UNITS) {
+				UtilMetrics.defaulted(ParseMethod.GET_UNIT_COUNTER);
+				ParseErrors.report(ParseMethod.GET_UNIT_COUNTER, val, null);
+				units = 0;
 			}
+			counter.addUnits(units);
+		} else {
+			UtilMetrics.defaulted(ParseMethod.GET_UNIT_COUNTER);
 		}
 		return counter;
 	}
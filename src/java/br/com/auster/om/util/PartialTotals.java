@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Totals of one part of an aggregation that runs in parallel, such as a chunk of a usage file or
+ * 	a batch of rated records: the type of the first record of each key, and the units of each type.
+ * 	Merging the parts in their original order gives the same counters as adding all records to a
+ * 	single table one at a time, so the result does not depend on which part finished first.
+ *
+ * @version $Id$
+ */
+final class PartialTotals {
+
+	private final UnitCounterTable firsts = new UnitCounterTable();
+	private final UnitCounterTable[] byType = { new UnitCounterTable(), new UnitCounterTable(), new UnitCounterTable() };
+
+
+	void add(long _key, byte _tag, long _units) {
+		if (!this.firsts.contains(_key)) {
+			this.firsts.add(_key, _tag, 0);
+		}
+		this.byType[_tag - 1].add(_key, _tag, _units);
+	}
+
+	/**
+	 * Adds these totals to <code>_result</code>. Keys seen for the first time get the type of their
+	 * 	first record in this part, and units of any other type are left out and logged to
+	 * 	<code>_log</code>.
+	 */
+	void mergeInto(final UnitCounterTable _result, final Logger _log) {
+		this.firsts.forEach(new UnitCounterTable.Visitor() {
+			public void visit(long _key, String _type, long _units) {
+				if (!_result.contains(_key)) {
+					_result.add(_key, _type, 0);
+				}
+			}
+		});
+		UnitCounterTable.Visitor adder = new UnitCounterTable.Visitor() {
+			public void visit(long _key, String _type, long _units) {
+				String current = _result.getType(_key);
+				if (current.equals(_type)) {
+					_result.add(_key, _type, _units);
+				} else {
+					_log.warn("Skipping " + _units + " units of type " + _type + " for key " + _key +
+							", which has a counter of type " + current);
+				}
+			}
+		};
+		for (int i = 0; i < this.byType.length; i++) {
+			this.byType[i].forEach(adder);
+		}
+	}
+}
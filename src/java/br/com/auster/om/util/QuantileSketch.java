@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+/**
+ * Mergeable sketch of the distribution of <code>long</code> values, for the quantiles of
+ * 	{@link UnitCounterStatistics}. It follows the DDSketch design: positive values are counted in
+ * 	logarithmic buckets where bucket <code>i</code> holds the values in
+ * 	<code>(gamma^(i-1), gamma^i]</code>, with <code>gamma = (1 + a) / (1 - a)</code> for a relative
+ * 	accuracy <code>a</code>, and are estimated by the value whose relative distance to both bucket
+ * 	bounds is <code>a</code>. Negative values are counted the same way by their magnitude, and
+ * 	zeros on their own. Any quantile is then estimated within <code>a</code> of the value found
+ * 	at its rank, and two sketches with the same accuracy merge by adding their bucket counts,
+ * 	giving exactly the sketch of all their values.
+ * <p>
+ * Buckets are kept in arrays covering only the range of indexes seen, so a sketch of values
+ * 	spanning a few orders of magnitude holds a few hundred counts at one percent accuracy.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @version $Id$
+ */
+final class QuantileSketch {
+
+	private final double relativeAccuracy;
+	private final double gamma;
+	private final double multiplier;
+
+	private final Buckets positive = new Buckets();
+	private final Buckets negative = new Buckets();
+	private long zeros;
+
+
+	QuantileSketch(double _relativeAccuracy) {
+		if (!((_relativeAccuracy > 0) && (_relativeAccuracy < 1))) {
+			throw new IllegalArgumentException("Invalid relative accuracy = " + _relativeAccuracy);
+		}
+		this.relativeAccuracy = _relativeAccuracy;
+		this.gamma = (1 + _relativeAccuracy) / (1 - _relativeAccuracy);
+		this.multiplier = 1 / Math.log(this.gamma);
+	}
+
+	double getRelativeAccuracy() {
+		return this.relativeAccuracy;
+	}
+
+	long getCount() {
+		return this.zeros + this.positive.total + this.negative.total;
+	}
+
+	void add(long _value) {
+		if (_value > 0) {
+			this.positive.add(indexOf(_value), 1);
+		} else if (_value < 0) {
+			// the magnitude of Long.MIN_VALUE does not fit a long, but its double does
+			this.negative.add(indexOf(-(double) _value), 1);
+		} else {
+			this.zeros++;
+		}
+	}
+
+	/**
+	 * Adds all values of <code>_other</code>, which must have the same relative accuracy.
+	 */
+	void addAll(QuantileSketch _other) {
+		if (_other.relativeAccuracy != this.relativeAccuracy) {
+			throw new IllegalArgumentException("Can't merge sketches of relative accuracy " + this.relativeAccuracy +
+					" and " + _other.relativeAccuracy);
+		}
+		this.positive.addAll(_other.positive);
+		this.negative.addAll(_other.negative);
+		this.zeros += _other.zeros;
+	}
+
+	/**
+	 * Returns the estimate of the value at rank <code>_quantile * (count - 1)</code> of the
+	 * 	sorted values, or 0 if the sketch is empty.
+	 *
+	 * @param _quantile between 0 and 1
+	 */
+	double getQuantile(double _quantile) {
+		long count = getCount();
+		if (count == 0) {
+			return 0;
+		}
+		double rank = _quantile * (count - 1);
+		// from the most negative value up
+		long seen = 0;
+		for (int i = this.negative.counts.length - 1; i >= 0; i--) {
+			seen += this.negative.counts[i];
+			if (seen > rank) {
+				return -valueOf(this.negative.offset + i);
+			}
+		}
+		seen += this.zeros;
+		if (seen > rank) {
+			return 0;
+		}
+		for (int i = 0; i < this.positive.counts.length; i++) {
+			seen += this.positive.counts[i];
+			if (seen > rank) {
+				return valueOf(this.positive.offset + i);
+			}
+		}
+		return valueOf(this.positive.offset + this.positive.counts.length - 1);
+	}
+
+	private int indexOf(double _magnitude) {
+		return (int) Math.ceil(Math.log(_magnitude) * this.multiplier);
+	}
+
+	private double valueOf(int _index) {
+		return 2 * Math.pow(this.gamma, _index) / (this.gamma + 1);
+	}
+
+
+	/**
+	 * Counts of a contiguous range of bucket indexes, starting at <code>offset</code>.
+	 */
+	private static final class Buckets {
+
+		long[] counts = new long[0];
+		int offset;
+		long total;
+
+
+		void add(int _index, long _count) {
+			if (this.counts.length == 0) {
+				this.counts = new long[8];
+				this.offset = _index - 4;
+			} else if ((_index < this.offset) || (_index >= this.offset + this.counts.length)) {
+				extend(_index);
+			}
+			this.counts[_index - this.offset] += _count;
+			this.total += _count;
+		}
+
+		void addAll(Buckets _other) {
+			for (int i = 0; i < _other.counts.length; i++) {
+				if (_other.counts[i] != 0) {
+					add(_other.offset + i, _other.counts[i]);
+				}
+			}
+		}
+
+		/**
+		 * Grows the range to cover <code>_index</code>, with as much room again on that side.
+		 */
+		private void extend(int _index) {
+			int from = this.offset;
+			int to = this.offset + this.counts.length;
+			if (_index < from) {
+				from = _index - (to - _index) / 2;
+			} else {
+				to = _index + 1 + (_index + 1 - from) / 2;
+			}
+			long[] extended = new long[to - from];
+			System.arraycopy(this.counts, 0, extended, this.offset - from, this.counts.length);
+			this.counts = extended;
+			this.offset = from;
+		}
+	}
+}
@@ -0,0 +1,354 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Rates batches of usage records into a {@link UnitCounterTable}, one counter per key.
+ * <p>
+ * Each record holds a key, the unit of its usage quantity, the unit the service is priced in and
+ * 	the quantity itself. Rating a record gives the same units as converting the quantity with
+ * 	{@link UnitConvertor#getConvertionFactor(String, String)} and adding it to the key's counter
+ * 	through the ingester of the price unit, just like {@link UnitConvertor#convert(double[], long[],
+ * 	String, String)} does. Unit names are resolved into the convertor's identifiers when records
+ * 	are added to a {@link Batch}, without registering names the convertor does not know, so unit
+ * 	names found in usage records never grow its factor table. The batch also keeps the distinct
+ * 	(usage, price) pairs it holds, so factors and ingesters are looked up once per pair and batch
+ * 	instead of once per record. All factors of a batch are read from the same convertion table,
+ * 	even if the convertor is reloaded meanwhile.
+ * <p>
+ * Batches are rated in parallel, each into its own totals, and the totals are merged in the order
+ * 	of the batches. As with <code>UnitCounter</code>, the type of each counter is set by the first
+ * 	record of its key, and units of other types found later for the same key are skipped and
+ * 	logged, so the result is the same as rating all records one at a time, whatever the order in
+ * 	which batches complete.
+ * <p>
+ * Instances may be shared between threads. Batches may not be changed while they are rated.
+ *
+ * @version $Id$
+ */
+public class RatingStage {
+
+	private static final Logger log = Logger.getLogger(RatingStage.class);
+
+
+	private final UnitConvertor convertor;
+	private final UnitTypeRegistry registry;
+
+
+	public RatingStage(UnitConvertor _convertor) {
+		this(_convertor, UnitTypeRegistry.getDefault());
+	}
+
+	public RatingStage(UnitConvertor _convertor, UnitTypeRegistry _registry) {
+		this.convertor = _convertor;
+		this.registry = _registry;
+	}
+
+	/**
+	 * Returns a new, empty batch for this stage.
+	 */
+	public Batch newBatch() {
+		return new Batch(this.convertor, 1024);
+	}
+
+	/**
+	 * Returns a new, empty batch for this stage, sized for <code>_expectedRecords</code> records.
+	 */
+	public Batch newBatch(int _expectedRecords) {
+		if (_expectedRecords < 0) {
+			throw new IllegalArgumentException("Invalid expected records = " + _expectedRecords);
+		}
+		return new Batch(this.convertor, _expectedRecords);
+	}
+
+	/**
+	 * Rates the records of <code>_batch</code> in the calling thread.
+	 *
+	 * @return a new table with one counter per key
+	 * @throws ArithmeticException if the units of a record do not fit a <code>long</code>
+	 */
+	public UnitCounterTable rate(Batch _batch) {
+		UnitCounterTable result = new UnitCounterTable();
+		rateBatch(_batch).mergeInto(result, log);
+		return result;
+	}
+
+	/**
+	 * Same as {@link #rate(List, ExecutorService)}, using the common fork join pool.
+	 *
+	 * @throws ArithmeticException if the units of a record do not fit a <code>long</code>
+	 */
+	public UnitCounterTable rate(List<Batch> _batches) {
+		return rate(_batches, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Rates all records of <code>_batches</code>, one batch per task of <code>_pool</code>.
+	 *
+	 * @return a new table with one counter per key
+	 * @throws ArithmeticException if the units of a record do not fit a <code>long</code>
+	 */
+	public UnitCounterTable rate(List<Batch> _batches, ExecutorService _pool) {
+		List<Future<PartialTotals>> parts = new ArrayList<Future<PartialTotals>>(_batches.size());
+		for (final Batch batch : _batches) {
+			checkBatch(batch);
+			parts.add(_pool.submit(new Callable<PartialTotals>() {
+				public PartialTotals call() {
+					return rateBatch(batch);
+				}
+			}));
+		}
+		UnitCounterTable result = new UnitCounterTable();
+		try {
+			for (Future<PartialTotals> part : parts) {
+				part.get().mergeInto(result, log);
+			}
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while rating batches", ie);
+		} catch (ExecutionException ee) {
+			if (ee.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) ee.getCause();
+			}
+			throw new IllegalStateException("Could not rate batches", ee.getCause());
+		} finally {
+			for (Future<PartialTotals> part : parts) {
+				part.cancel(false);
+			}
+		}
+		return result;
+	}
+
+	private void checkBatch(Batch _batch) {
+		if (_batch.convertor != this.convertor) {
+			throw new IllegalArgumentException("Batch was not created for the convertor of this rating stage");
+		}
+	}
+
+	/**
+	 * Rates a batch into its own totals, resolving the factor, ingester and counter type of each
+	 * 	of its pairs first.
+	 */
+	private PartialTotals rateBatch(Batch _batch) {
+		checkBatch(_batch);
+		int pairs = _batch.pairCount;
+		double[] factors = new double[pairs];
+		UnitIngester[] ingesters = new UnitIngester[pairs];
+		byte[] tags = new byte[pairs];
+		ConvertionTable table = this.convertor.getConvertionTable();
+		boolean metrics = UtilMetrics.isEnabled();
+		for (int p = 0; p < pairs; p++) {
+			int usageId = _batch.pairUsage[p];
+			int priceId = _batch.pairPrice[p];
+			// price units unknown to the convertor have no factor either
+			int toId = Math.max(priceId, UnitConvertor.UNKNOWN_UNIT);
+			if (metrics) {
+				UtilMetrics.looked(table.lookupKind(usageId, toId));
+			}
+			factors[p] = table.getConvertionFactor(usageId, toId);
+			ingesters[p] = this.registry.lookup((priceId >= 0) ? this.convertor.getUnitName(priceId)
+					: _batch.unknownUnits.get(-2 - priceId));
+			tags[p] = UnitCounter.tagOf(ingesters[p].getCounterType());
+		}
+		PartialTotals totals = new PartialTotals();
+		long[] keys = _batch.keys;
+		int[] pairOf = _batch.pairOf;
+		double[] values = _batch.values;
+		for (int i = 0; i < _batch.size; i++) {
+			int p = pairOf[i];
+			totals.add(keys[i], tags[p], ingesters[p].toUnits(values[i] * factors[p]));
+		}
+		return totals;
+	}
+
+
+	/**
+	 * A batch of usage records to be rated by the {@link RatingStage} that created it. Records are
+	 * 	kept in primitive arrays, with their units as identifiers of the stage's
+	 * 	<code>UnitConvertor</code>. Price units the convertor does not know are numbered within the
+	 * 	batch, since their ingester still depends on their name, while usage units it does not know
+	 * 	all share {@link UnitConvertor#UNKNOWN_UNIT}, as they have no factor. Batches can be cleared
+	 * 	and filled again.
+	 * <p>
+	 * This class is not thread-safe.
+	 */
+	public static final class Batch {
+
+		private final UnitConvertor convertor;
+
+		// records
+		private long[] keys;
+		private int[] pairOf;
+		private double[] values;
+		private int size;
+
+		// distinct (usage, price) pairs, in order of appearance
+		private int[] pairUsage = new int[8];
+		private int[] pairPrice = new int[8];
+		private int pairCount;
+
+		// price units unknown to the convertor, numbered -2, -3, ...
+		private final List<String> unknownUnits = new ArrayList<String>();
+		private final Map<String, Integer> unknownIds = new HashMap<String, Integer>();
+
+		// open addressing index of the pairs: usage id in the upper half, price id in the lower
+		private long[] slotPairs = new long[16];
+		private int[] slotIndexes = new int[16];
+
+
+		Batch(UnitConvertor _convertor, int _expectedRecords) {
+			this.convertor = _convertor;
+			int capacity = Math.max(_expectedRecords, 16);
+			this.keys = new long[capacity];
+			this.pairOf = new int[capacity];
+			this.values = new double[capacity];
+			Arrays.fill(this.slotIndexes, -1);
+		}
+
+		/**
+		 * Adds a record of <code>_value</code> units of <code>_usageUnit</code>, to be rated in
+		 * 	<code>_priceUnit</code> into the counter of <code>_key</code>. Unit names are matched
+		 * 	ignoring case.
+		 */
+		public void add(long _key, String _usageUnit, String _priceUnit, double _value) {
+			int priceId = this.convertor.getUnitId(_priceUnit);
+			if (priceId == UnitConvertor.UNKNOWN_UNIT) {
+				priceId = unknownId(_priceUnit);
+			}
+			addRecord(_key, this.convertor.getUnitId(_usageUnit), priceId, _value);
+		}
+
+		/**
+		 * Same as {@link #add(long, String, String, double)}, for units already resolved with
+		 * 	{@link UnitConvertor#getUnitId(CharSequence)} or {@link UnitConvertor#internUnit(String)}.
+		 * 	The usage unit may be {@link UnitConvertor#UNKNOWN_UNIT}, the price unit may not.
+		 */
+		public void add(long _key, int _usageId, int _priceId, double _value) {
+			if ((_usageId < UnitConvertor.UNKNOWN_UNIT) || (_priceId < 0)) {
+				throw new IllegalArgumentException("Unknown unit id = " + ((_priceId < 0) ? _priceId : _usageId));
+			}
+			addRecord(_key, _usageId, _priceId, _value);
+		}
+
+		private void addRecord(long _key, int _usageId, int _priceId, double _value) {
+			if (this.size == this.keys.length) {
+				int capacity = this.size * 2;
+				this.keys = Arrays.copyOf(this.keys, capacity);
+				this.pairOf = Arrays.copyOf(this.pairOf, capacity);
+				this.values = Arrays.copyOf(this.values, capacity);
+			}
+			this.keys[this.size] = _key;
+			this.pairOf[this.size] = pairOf(_usageId, _priceId);
+			this.values[this.size] = _value;
+			this.size++;
+		}
+
+		public int size() {
+			return this.size;
+		}
+
+		/**
+		 * Returns how many distinct (usage unit, price unit) pairs the records of this batch use.
+		 */
+		public int getPairCount() {
+			return this.pairCount;
+		}
+
+		/**
+		 * Removes all records, keeping the allocated space.
+		 */
+		public void clear() {
+			this.size = 0;
+			this.pairCount = 0;
+			Arrays.fill(this.slotIndexes, -1);
+			this.unknownUnits.clear();
+			this.unknownIds.clear();
+		}
+
+		private int unknownId(String _unit) {
+			Integer id = this.unknownIds.get(_unit);
+			if (id == null) {
+				id = Integer.valueOf(-2 - this.unknownUnits.size());
+				this.unknownUnits.add(_unit);
+				this.unknownIds.put(_unit, id);
+			}
+			return id.intValue();
+		}
+
+		private int pairOf(int _usageId, int _priceId) {
+			long pair = (((long) _usageId) << 32) | (_priceId & 0xffffffffL);
+			int mask = this.slotPairs.length - 1;
+			int slot = hash(pair) & mask;
+			int index;
+			while ((index = this.slotIndexes[slot]) >= 0) {
+				if (this.slotPairs[slot] == pair) {
+					return index;
+				}
+				slot = (slot + 1) & mask;
+			}
+			index = this.pairCount;
+			if (index == this.pairUsage.length) {
+				this.pairUsage = Arrays.copyOf(this.pairUsage, index * 2);
+				this.pairPrice = Arrays.copyOf(this.pairPrice, index * 2);
+			}
+			this.pairUsage[index] = _usageId;
+			this.pairPrice[index] = _priceId;
+			this.pairCount++;
+			this.slotPairs[slot] = pair;
+			this.slotIndexes[slot] = index;
+			if (this.pairCount * 2 > this.slotPairs.length) {
+				rehash();
+			}
+			return index;
+		}
+
+		private void rehash() {
+			int capacity = this.slotPairs.length * 2;
+			this.slotPairs = new long[capacity];
+			this.slotIndexes = new int[capacity];
+			Arrays.fill(this.slotIndexes, -1);
+			for (int i = 0; i < this.pairCount; i++) {
+				long pair = (((long) this.pairUsage[i]) << 32) | (this.pairPrice[i] & 0xffffffffL);
+				int slot = hash(pair) & (capacity - 1);
+				while (this.slotIndexes[slot] >= 0) {
+					slot = (slot + 1) & (capacity - 1);
+				}
+				this.slotPairs[slot] = pair;
+				this.slotIndexes[slot] = i;
+			}
+		}
+
+		private static int hash(long _pair) {
+			long h = _pair * 0x9E3779B97F4A7C15L;
+			return (int) (h >>> 32);
+		}
+	}
+}
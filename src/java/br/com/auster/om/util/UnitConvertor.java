@@ -18,17 +18,42 @@
  */
 package br.com.auster.om.util;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.sql.Connection;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
+
+import org.apache.log4j.Logger;
 
 
 /**
  * Helper class to convert from customized unit types into known units. Known units are
  * 	those defined in the <code>UnitCounter</code> class.
+ * <p>
+ * Convertion factors are kept in an immutable table. Readers pick the current table with a
+ * 	single volatile read and never lock, while {@link #reload(Connection)} and
+ * 	{@link #addConvertionFactor(String, String, double)} build a new table and swap it in.
+ * 	A {@link UnitConvertorRefresher} can reload it periodically from the database.
+ * <p>
+ * Factors are chained when the table is loaded, so any pair of units connected through the
+ * 	defined factors, in either direction, has a factor as well. Defined factors which contradict
+ * 	each other are logged and listed by {@link #getInconsistencies()}.
+ * <p>
+ * Unit names can be resolved into identifiers with {@link #internUnit(String)}. Identifiers never
+ * 	change, even across reloads, so a caller converting many values can resolve them once and use
+ * 	{@link #getConvertionFactor(int, int)}, which is a plain array lookup.
+ * <p>
+ * The factors can be saved to a local snapshot file with {@link #exportSnapshot(Path)}, and a
+ * 	worker can start from that file with {@link #getInstance(Path)}, without a database connection.
+ * 	The database is then only used to refresh the factors, for instance by a
+ * 	<code>UnitConvertorRefresher</code> which also keeps the snapshot up to date.
  * 
  * @author framos
  * @version $Id: UnitConvertor.java 76 2005-11-08 20:20:09Z framos $
@@ -37,36 +62,118 @@ public class UnitConvertor {
 
 	
 	
-	private Map convertion;
+	private static final Logger log = Logger.getLogger(UnitConvertor.class);
+
+	/** Identifier returned by {@link #getUnitId(CharSequence)} for units never seen. */
+	public static final int UNKNOWN_UNIT = UnitSymbols.UNKNOWN;
+	
+	private final UnitSymbols symbols;
+	private volatile ConvertionTable convertion;
 	
 
 	protected UnitConvertor() {
-		convertion = new HashMap();
+		symbols = new UnitSymbols();
+		convertion = ConvertionTable.EMPTY;
 	}
 	
 
 	
-	public synchronized static UnitConvertor getInstance(Connection _connection) throws SQLException  {
-		
+	public static UnitConvertor getInstance(Connection _connection) throws SQLException  {
+		UnitConvertor uc = new UnitConvertor();
+		uc.reload(_connection);
+		return uc;
+	}
+
+	/**
+	 * Creates a convertor with the factors of a snapshot written by {@link #exportSnapshot(Path)}.
+	 *  No database connection or driver is needed. The convertor can be refreshed later, for
+	 *  instance by a {@link UnitConvertorRefresher}, and keeps the snapshot factors for as long as
+	 *  the database can not be read.
+	 * 
+	 * @param _snapshot the snapshot file
+	 * 
+	 * @throws IOException if the file can not be read, or is not a valid snapshot
+	 */
+	public static UnitConvertor getInstance(Path _snapshot) throws IOException {
 		UnitConvertor uc = new UnitConvertor();
-		Statement stmt = null;
-		ResultSet rset = null;
+		uc.loadSnapshot(_snapshot);
+		return uc;
+	}
+
+	/**
+	 * Replaces all convertion factors with the ones of a snapshot written by {@link #exportSnapshot(Path)},
+	 *  as {@link #reload(Connection)} does with the database. The file is read with a single mapping.
+	 *  If it can not be read, the current factors are kept.
+	 * 
+	 * @param _snapshot the snapshot file
+	 * 
+	 * @throws IOException if the file can not be read, or is not a valid snapshot
+	 */
+	public void loadSnapshot(Path _snapshot) throws IOException {
+		ConvertionTable loaded;
+		FileChannel channel = FileChannel.open(_snapshot, StandardOpenOption.READ);
 		try {
-			stmt = _connection.createStatement();
-			rset = stmt.executeQuery("select * from om_unit_convertion");
-			while (rset.next()) {
-				uc.addConvertionFactor(rset.getString("from_unit"), rset.getString("to_unit"), rset.getDouble("convertion_rate"));
+			loaded = ConvertionTable.read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), symbols);
+		} catch (IOException ioe) {
+			throw new IOException(ioe.getMessage() + ": " + _snapshot, ioe);
+		} finally {
+			channel.close();
+		}
+		synchronized (this) {
+			convertion = loaded;
+		}
+		warnInconsistencies(loaded);
+	}
+
+	/**
+	 * Saves the current convertion factors, as defined, into a snapshot file. The file is first
+	 *  written under a temporary name and then renamed, so readers never see a partial snapshot.
+	 * 
+	 * @param _snapshot the snapshot file, which is replaced if it exists
+	 */
+	public void exportSnapshot(Path _snapshot) throws IOException {
+		ByteBuffer content = convertion.toSnapshot(symbols);
+		Path absolute = _snapshot.toAbsolutePath();
+		Path temporary = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+		try {
+			FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE);
+			try {
+				while (content.hasRemaining()) {
+					channel.write(content);
+				}
+				channel.force(true);
+			} finally {
+				channel.close();
+			}
+			try {
+				Files.move(temporary, absolute, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException amnse) {
+				Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING);
 			}
 		} finally {
-			if (stmt != null) { stmt.close(); }
-			if (rset != null) { rset.close(); }
+			Files.deleteIfExists(temporary);
 		}
-		return uc;
+	}
+
+	/**
+	 * Replaces all convertion factors with the contents of the <code>om_unit_convertion</code> table.
+	 *  Threads reading factors are never blocked: they see either the previous factors or the new
+	 *  ones. If the table can not be read, the current factors are kept.
+	 *  
+	 * @param _connection the connection used to read the table; it is not closed
+	 */
+	public void reload(Connection _connection) throws SQLException {
+		ConvertionTable loaded = ConvertionTable.load(_connection, symbols);
+		synchronized (this) {
+			convertion = loaded;
+		}
+		warnInconsistencies(loaded);
 	}
 
 	/**
 	 * Adds a new convertion factor. This maps a customized unit type into a knwon one, with a convertion factor.
 	 *  The <code>_rate</code> parameter indicates the value used to convert from the customized unit type.
+	 *  Factors added this way are lost on the next {@link #reload(Connection)}.
 	 *  
 	 * @param _fromUnit the customized unit type
 	 * @param _toUnit the known unit type
@@ -74,20 +181,32 @@ public class UnitConvertor {
 	 * 
 	 * @return if there was a previously set convertion factor
 	 */
-	public void addConvertionFactor(String _fromUnit, String _toUnit, double _rate) {
-		Map m = (Map) convertion.get(_fromUnit.toUpperCase());
-		if (m == null) {
-			m = new HashMap();
-			convertion.put(_fromUnit.toUpperCase(), m);
+	public synchronized void addConvertionFactor(String _fromUnit, String _toUnit, double _rate) {
+		convertion = convertion.with(symbols, _fromUnit, _toUnit, _rate);
+		warnInconsistencies(convertion);
+	}
+
+	/**
+	 * Returns a description of each defined convertion factor which contradicts the factors
+	 * 	derived from other ones, such as <code>A -> B = 2</code> together with <code>B -> A = 3</code>.
+	 * 
+	 * @return the inconsistencies of the current factors, or an empty list
+	 */
+	public List<String> getInconsistencies() {
+		return convertion.getInconsistencies();
+	}
+
+	private static void warnInconsistencies(ConvertionTable _table) {
+		for (String message : _table.getInconsistencies()) {
+			log.warn(message);
 		}
-		m.put(_toUnit.toUpperCase(), Double.valueOf(_rate));
 	}
 	
 	/**
 	 * Returns the double value to be used as factor to convert from <code>_fromUnit</code> units
-	 * 	into <code>_toUnit</code> units. If units are equals, or there is no convertion factor defined
-	 * 	for the specified pair of types, then <code>1L</code> will be returned, so it wont influenciate
-	 * 	the final value. 
+	 * 	into <code>_toUnit</code> units. If units are equals, or no chain of convertion factors
+	 * 	connects the specified pair of types, then <code>1L</code> will be returned, so it wont
+	 * 	influenciate the final value. 
 	 * 
 	 * @param _fromUnit the usage unit type
 	 * @param _toUnit the service price unit type 
@@ -95,15 +214,141 @@ public class UnitConvertor {
 	 * @return the factor used to transform from the usage unit type to the service price unit type
 	 */
 	public double getConvertionFactor(String _fromUnit, String _toUnit) {
-		if (_fromUnit.toUpperCase().equals(_toUnit.toUpperCase())) {
-			return 1D;
+		int fromId = getUnitId(_fromUnit);
+		int toId = getUnitId(_toUnit);
+		ConvertionTable table = convertion;
+		if (UtilMetrics.isEnabled()) {
+			UtilMetrics.looked(((fromId < 0) && _fromUnit.equalsIgnoreCase(_toUnit)) ? UtilMetrics.SAME_UNIT : table.lookupKind(fromId, toId));
 		}
-		Map m = (Map) convertion.get(_fromUnit.toUpperCase());
-		if (m == null) {
-			return 1D;
+		return table.getConvertionFactor(fromId, toId);
+	}
+
+	/**
+	 * Same as {@link #getConvertionFactor(String, String)}, for units already resolved into
+	 * 	identifiers. Identifiers which are unknown, or which have no factors loaded yet, behave
+	 * 	like units with no convertion factor.
+	 * 
+	 * @param _fromId the identifier of the usage unit type
+	 * @param _toId the identifier of the service price unit type
+	 * 
+	 * @return the factor used to transform from the usage unit type to the service price unit type
+	 */
+	public double getConvertionFactor(int _fromId, int _toId) {
+		ConvertionTable table = convertion;
+		if (UtilMetrics.isEnabled()) {
+			UtilMetrics.looked(table.lookupKind(_fromId, _toId));
+		}
+		return table.getConvertionFactor(_fromId, _toId);
+	}
+
+	/**
+	 * Returns the current convertion table, so that several factors can be read from the same
+	 * 	table even if the factors are reloaded meanwhile.
+	 */
+	ConvertionTable getConvertionTable() {
+		return convertion;
+	}
+
+	/**
+	 * Converts <code>_src</code> quantities of <code>_fromUnit</code> into counter units of
+	 * 	<code>_toUnit</code>, as the ingester of {@link UnitTypeRegistry#getDefault()} for
+	 * 	<code>_toUnit</code> does: each <code>_dst[i]</code> is the same as adding
+	 * 	<code>_src[i] * getConvertionFactor(_fromUnit, _toUnit)</code> to an empty counter with the
+	 * 	matching <code>UnitCounter</code> method, such as <code>addMinutes</code> for <code>MINUTES</code>.
+	 * 	The factor is looked up once.
+	 * 
+	 * @param _src the quantities, in <code>_fromUnit</code>
+	 * @param _dst receives the counter units; must be at least as long as <code>_src</code>
+	 * @param _fromUnit the usage unit type
+	 * @param _toUnit the service price unit type
+	 * @throws ArithmeticException if the units of a quantity do not fit a <code>long</code>
+	 */
+	public void convert(double[] _src, long[] _dst, String _fromUnit, String _toUnit) {
+		convert(_src, 0, _dst, 0, _src.length, _fromUnit, _toUnit, UnitTypeRegistry.getDefault().lookup(_toUnit));
+	}
+
+	/**
+	 * Same as {@link #convert(double[], long[], String, String)}, for a range of the arrays and
+	 * 	with the ingester of <code>_toUnit</code> given.
+	 *
+	 * @throws ArithmeticException if the units of a quantity do not fit a <code>long</code>
+	 */
+	public void convert(double[] _src, int _srcOffset, long[] _dst, int _dstOffset, int _length,
+			String _fromUnit, String _toUnit, UnitIngester _ingester) {
+		checkRange(_src.length, _srcOffset, _length);
+		checkRange(_dst.length, _dstOffset, _length);
+		double factor = getConvertionFactor(_fromUnit, _toUnit);
+		_ingester.toUnits(_src, _srcOffset, factor, _dst, _dstOffset, _length);
+	}
+
+	/**
+	 * Returns a counter with the sum of the units {@link #convert(double[], long[], String, String)}
+	 * 	would give, which is the counter obtained by adding each converted quantity to it one at a time.
+	 *
+	 * @throws ArithmeticException if the units of a quantity do not fit a <code>long</code>
+	 */
+	public UnitCounter sumConverted(double[] _src, String _fromUnit, String _toUnit) {
+		return sumConverted(_src, 0, _src.length, _fromUnit, _toUnit, UnitTypeRegistry.getDefault().lookup(_toUnit));
+	}
+
+	/**
+	 * Same as {@link #sumConverted(double[], String, String)}, for a range of the array and with the
+	 * 	ingester of <code>_toUnit</code> given.
+	 *
+	 * @throws ArithmeticException if the units of a quantity do not fit a <code>long</code>
+	 */
+	public UnitCounter sumConverted(double[] _src, int _offset, int _length, String _fromUnit, String _toUnit,
+			UnitIngester _ingester) {
+		checkRange(_src.length, _offset, _length);
+		double factor = getConvertionFactor(_fromUnit, _toUnit);
+		UnitCounter counter = new UnitCounter(_ingester.getCounterType());
+		counter.setUnits(_ingester.sumUnits(_src, _offset, factor, _length));
+		return counter;
+	}
+
+	private static void checkRange(int _arrayLength, int _offset, int _length) {
+		if ((_offset < 0) || (_length < 0) || (_offset > _arrayLength - _length)) {
+			throw new IllegalArgumentException("Invalid range = " + _offset + "+" + _length + " of " + _arrayLength);
+		}
+	}
+
+	/**
+	 * Returns the identifier of <code>_unit</code>, registering it if it was never seen. Names
+	 * 	are matched ignoring case. Registered names are kept for good, and the factor table of
+	 * 	the next reload holds a row and a column for each of them, so names taken from usage
+	 * 	records should be resolved with {@link #getUnitId(CharSequence)} instead.
+	 * 
+	 * @param _unit the unit name
+	 * 
+	 * @return a small non-negative identifier, which never changes for this instance
+	 */
+	public int internUnit(String _unit) {
+		return symbols.intern(_unit);
+	}
+
+	/**
+	 * Returns the identifier of <code>_unit</code> without registering it.
+	 * 
+	 * @param _unit the unit name
+	 * 
+	 * @return the identifier, or {@link #UNKNOWN_UNIT} if the unit was never seen
+	 */
+	public int getUnitId(CharSequence _unit) {
+		return symbols.find(_unit, 0, _unit.length());
+	}
+
+	/**
+	 * Returns the name of the unit identified by <code>_id</code>, as it was first seen.
+	 * 
+	 * @param _id a unit identifier
+	 * 
+	 * @return the unit name
+	 */
+	public String getUnitName(int _id) {
+		if ((_id < 0) || (_id >= symbols.size())) {
+			throw new IllegalArgumentException("Unknown unit id = " + _id);
 		}
-		Double d = (Double) m.get(_toUnit.toUpperCase());
-		return (d == null ? 1D : d.doubleValue());
+		return symbols.nameOf(_id);
 	}
 	
 	public void doNothing() {
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Keeps a {@link UnitConvertor} in sync with the <code>om_unit_convertion</code> table, so rate
+ * 	table changes reach running workers without a restart.
+ * <p>
+ * Once {@link #start(long, TimeUnit) started}, the table is reloaded periodically by a daemon
+ * 	thread; {@link #refreshNow()} reloads it at once. Each reload swaps the convertor factors
+ * 	atomically and never blocks threads calling {@link UnitConvertor#getConvertionFactor(String, String)}.
+ * 	Failed reloads are logged and the previous factors stay in use. When a
+ * 	{@link #setSnapshotFile(Path) snapshot file} is set, it is rewritten after each reload, so that
+ * 	workers can start from it with {@link UnitConvertor#getInstance(Path)} even if the database is
+ * 	slow or down.
+ *
+ * @version $Id$
+ */
+public class UnitConvertorRefresher {
+
+	private static final Logger log = Logger.getLogger(UnitConvertorRefresher.class);
+
+
+	private final UnitConvertor convertor;
+	private final DataSource dataSource;
+	private ScheduledExecutorService executor;
+	private volatile Path snapshotFile;
+
+	private volatile long lastRefresh;
+	private volatile long refreshCount;
+	private volatile long failureCount;
+
+
+	/**
+	 * @param _convertor the convertor kept in sync
+	 * @param _dataSource where connections to read the table come from
+	 */
+	public UnitConvertorRefresher(UnitConvertor _convertor, DataSource _dataSource) {
+		this.convertor = _convertor;
+		this.dataSource = _dataSource;
+	}
+
+	/**
+	 * Sets the snapshot file written after each successful reload, or <code>null</code> for none.
+	 */
+	public void setSnapshotFile(Path _snapshotFile) {
+		this.snapshotFile = _snapshotFile;
+	}
+
+	public Path getSnapshotFile() {
+		return this.snapshotFile;
+	}
+
+	/**
+	 * Starts reloading the table every <code>_period</code> units of time, the first time
+	 * 	after one period. Does nothing if already started.
+	 */
+	public synchronized void start(long _period, TimeUnit _unit) {
+		if (this.executor != null) {
+			return;
+		}
+		this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable _runnable) {
+				Thread thread = new Thread(_runnable, "om-unit-convertion-refresher");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		this.executor.scheduleWithFixedDelay(new Runnable() {
+			public void run() {
+				try {
+					refreshNow();
+				} catch (Exception e) {
+					log.error("Could not reload unit convertion factors. Previous factors are still in use.", e);
+				}
+			}
+		}, _period, _period, _unit);
+	}
+
+	/**
+	 * Stops the periodic reloads. A reload already running is allowed to finish.
+	 */
+	public synchronized void stop() {
+		if (this.executor != null) {
+			this.executor.shutdown();
+			this.executor = null;
+		}
+	}
+
+	/**
+	 * Reloads the table now, in the calling thread.
+	 *
+	 * @throws SQLException if the table could not be read; the previous factors are kept
+	 */
+	public void refreshNow() throws SQLException {
+		Connection connection = null;
+		try {
+			connection = this.dataSource.getConnection();
+			this.convertor.reload(connection);
+			synchronized (this) {
+				this.lastRefresh = System.currentTimeMillis();
+				this.refreshCount++;
+			}
+			Path snapshot = this.snapshotFile;
+			if (snapshot != null) {
+				try {
+					this.convertor.exportSnapshot(snapshot);
+				} catch (IOException ioe) {
+					log.warn("Could not write unit convertion snapshot " + snapshot, ioe);
+				}
+			}
+		} catch (SQLException e) {
+			synchronized (this) {
+				this.failureCount++;
+			}
+			throw e;
+		} finally {
+			if (connection != null) {
+				try {
+					connection.close();
+				} catch (SQLException e) {
+					// logged rather than thrown, so that it never hides the failure of the reload itself
+					log.warn("Could not close the connection used to reload unit convertion factors", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The time of the last successful reload, in epoch milliseconds, or <code>0</code> if none.
+	 */
+	public long getLastRefreshTime() {
+		return this.lastRefresh;
+	}
+
+	public long getRefreshCount() {
+		return this.refreshCount;
+	}
+
+	public long getFailureCount() {
+		return this.failureCount;
+	}
+}
@@ -17,8 +17,9 @@
  */
 package br.com.auster.om.util;
 
-import java.text.MessageFormat;
-import java.text.ParseException;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 
 
 /**
@@ -35,14 +36,34 @@ public class UnitCounter implements Cloneable {
   public static final String DATA_COUNTER = "DATA";
   public static final String UNIT_COUNTER = "UNIT";
 
-  private static final ThreadLocal formatter = new ThreadLocal() {
-    protected Object initialValue() {
-      return new MessageFormat("{0,number,00}h{1,number,00}m{2,number,00}s");
+  // compact type tags, for primitive counter storage
+  static final byte TIME_TAG = 1;
+  static final byte DATA_TAG = 2;
+  static final byte UNIT_TAG = 3;
+
+  // fixed point conversions: quantities are first rounded to these fractions of a unit
+  static final long DATA_PRECISION = 100000;
+  static final long TIME_PRECISION = 100;
+  static final long KBYTE = 1024L;
+  static final long MBYTE = 1024L * KBYTE;
+  static final long GBYTE = 1024L * MBYTE;
+  static final long TBYTE = 1024L * GBYTE;
+  static final long MINUTE = 60L;
+  static final long HOUR = 3600L;
+
+  private static final String UNIT_SUFFIX = " unidade(s)";
+  private static final String DATA_SUFFIX = " bytes";
+
+  private static final long[] POWERS_OF_TEN = new long[19];
+  static {
+    POWERS_OF_TEN[0] = 1L;
+    for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+      POWERS_OF_TEN[i] = POWERS_OF_TEN[i-1] * 10L;
     }
-  };
+  }
 
 
-  private String   counterType;
+  private byte     counterTag;  // one of the *_TAG constants; the type column is mapped through getType/setType
   private long     unitCounter; // a counter for single units and data volumes
 
   public UnitCounter() {
@@ -64,20 +85,51 @@ public class UnitCounter implements Cloneable {
    *                not-null="false"
    */
   public void setType(String type) {
+    this.setTag(tagOf(type));
+  }
+
+  private void setTag(byte _tag) {
+    this.unitCounter = 0;
+    this.counterTag = _tag;
+  }
+
+  /**
+   * Returns the compact tag of a counter type.
+   *
+   * @throws IllegalArgumentException if the type is unknown
+   */
+  static byte tagOf(String type) {
     if(type.equals(TIME_COUNTER)) {
-      this.unitCounter = 0;
+      return TIME_TAG;
     } else if (type.equals(DATA_COUNTER)) {
-      this.unitCounter = 0;
+      return DATA_TAG;
     } else if (type.equals(UNIT_COUNTER)) {
-      this.unitCounter = 0;
-    } else {
-      throw new IllegalArgumentException("Unknown type = "+type);
+      return UNIT_TAG;
+    }
+    throw new IllegalArgumentException("Unknown type = "+type);
+  }
+
+  /**
+   * Returns the counter type of a tag built by {@link #tagOf(String)}.
+   */
+  static String typeOf(byte tag) {
+    switch (tag) {
+      case TIME_TAG: return TIME_COUNTER;
+      case DATA_TAG: return DATA_COUNTER;
+      case UNIT_TAG: return UNIT_COUNTER;
+      default: throw new IllegalArgumentException("Unknown type tag = "+tag);
     }
-    this.counterType = type;
   }
 
   public String getType() {
-    return this.counterType;
+    return typeOf(this.counterTag);
+  }
+
+  /**
+   * Returns the tag of this counter's type, as built by {@link #tagOf(String)}.
+   */
+  byte getTag() {
+    return this.counterTag;
   }
 
   public void reset() {
@@ -89,75 +141,155 @@ public class UnitCounter implements Cloneable {
   }
 
   public void addBytes(long bytes) {
-    if(this.getType().equals(DATA_COUNTER)) {
+    if(this.counterTag == DATA_TAG) {
       this.unitCounter += bytes;
     } else {
       throw new IllegalArgumentException("Can't add data units to a "+this.getType()+" counter");
     }
   }
 
+  /**
+   * @throws ArithmeticException if the bytes do not fit a <code>long</code>
+   */
   public void addKBytes(double kbytes) {
-    if(this.getType().equals(DATA_COUNTER)) {
-      long aux = (long)((kbytes*100000) + 0.005); // correcting rounding problems
-      this.unitCounter += (long)(aux*1024)/100000;
+    if(this.counterTag == DATA_TAG) {
+      this.unitCounter += kbytesToBytes(kbytes);
     } else {
       throw new IllegalArgumentException("Can't add data units to a "+this.getType()+" counter");
     }
   }
 
+  /**
+   * @throws ArithmeticException if the bytes do not fit a <code>long</code>
+   */
   public void addMBytes(double mbytes) {
-    if(this.getType().equals(DATA_COUNTER)) {
-      long aux = (long)((mbytes*100000) + 0.005); // correcting rounding problems
-      this.unitCounter += (long) (aux*1024*1024)/100000;
+    if(this.counterTag == DATA_TAG) {
+      this.unitCounter += mbytesToBytes(mbytes);
     } else {
       throw new IllegalArgumentException("Can't add data units to a "+this.getType()+" counter");
     }
   }
 
+  /**
+   * @throws ArithmeticException if the bytes do not fit a <code>long</code>
+   */
   public void addGBytes(double gbytes) {
-    if(this.getType().equals(DATA_COUNTER)) {
-      long aux = (long)((gbytes*100000) + 0.005); // correcting rounding problems
-      this.unitCounter += (long) (aux*1024*1024*1024)/100000;
+    if(this.counterTag == DATA_TAG) {
+      this.unitCounter += gbytesToBytes(gbytes);
     } else {
       throw new IllegalArgumentException("Can't add data units to a "+this.getType()+" counter");
     }
   }
 
+  /**
+   * @throws ArithmeticException if the bytes do not fit a <code>long</code>
+   */
   public void addTBytes(double gbytes) {
-    if(this.getType().equals(DATA_COUNTER)) {
-      long aux = (long)((gbytes*100000) + 0.005); // correcting rounding problems
-      this.unitCounter += (long) (aux*1024*1024*1024*1024)/100000;
+    if(this.counterTag == DATA_TAG) {
+      this.unitCounter += tbytesToBytes(gbytes);
     } else {
       throw new IllegalArgumentException("Can't add data units to a "+this.getType()+" counter");
     }
   }
 
   public void addSeconds(long seconds) {
-    if(this.getType().equals(TIME_COUNTER)) {
+    if(this.counterTag == TIME_TAG) {
       this.unitCounter += seconds;
     } else {
       throw new IllegalArgumentException("Can't add time units to a "+this.getType()+" counter");
     }
   }
 
+  /**
+   * @throws ArithmeticException if the seconds do not fit a <code>long</code>
+   */
   public void addMinutes(double minutes) {
-    if(this.getType().equals(TIME_COUNTER)) {
-      long aux = (long)((minutes*100) + 0.005); // correcting rounding problems
-      this.unitCounter += (aux*60)/100;
+    if(this.counterTag == TIME_TAG) {
+      this.unitCounter += minutesToSeconds(minutes);
     } else {
       throw new IllegalArgumentException("Can't add time units to a "+this.getType()+" counter");
     }
   }
 
+  /**
+   * @throws ArithmeticException if the seconds do not fit a <code>long</code>
+   */
   public void addHours(double hours) {
-    if(this.getType().equals(TIME_COUNTER)) {
-      long aux = (long)((hours*100) + 0.005); // correcting rounding problems
-      this.unitCounter += (aux*3600)/100;
+    if(this.counterTag == TIME_TAG) {
+      this.unitCounter += hoursToSeconds(hours);
     } else {
       throw new IllegalArgumentException("Can't add time units to a "+this.getType()+" counter");
     }
   }
 
+  static long kbytesToBytes(double kbytes) {
+    long aux = toFixedPoint(kbytes, DATA_PRECISION);
+    return scale(aux, KBYTE, DATA_PRECISION);
+  }
+
+  static long mbytesToBytes(double mbytes) {
+    long aux = toFixedPoint(mbytes, DATA_PRECISION);
+    return scale(aux, MBYTE, DATA_PRECISION);
+  }
+
+  static long gbytesToBytes(double gbytes) {
+    long aux = toFixedPoint(gbytes, DATA_PRECISION);
+    return scale(aux, GBYTE, DATA_PRECISION);
+  }
+
+  static long tbytesToBytes(double tbytes) {
+    long aux = toFixedPoint(tbytes, DATA_PRECISION);
+    return scale(aux, TBYTE, DATA_PRECISION);
+  }
+
+  static long minutesToSeconds(double minutes) {
+    long aux = toFixedPoint(minutes, TIME_PRECISION);
+    return scale(aux, MINUTE, TIME_PRECISION);
+  }
+
+  static long hoursToSeconds(double hours) {
+    long aux = toFixedPoint(hours, TIME_PRECISION);
+    return scale(aux, HOUR, TIME_PRECISION);
+  }
+
+  /**
+   * Returns <code>_value * _precision</code> rounded to a <code>long</code>, the first step of the
+   * conversions above.
+   *
+   * @throws ArithmeticException if <code>_value</code> is not a number, or the result does not fit a
+   * <code>long</code>
+   */
+  private static long toFixedPoint(double _value, long _precision) {
+    double aux = (_value * _precision) + 0.005; // correcting rounding problems
+    return toLong(aux);
+  }
+
+  /**
+   * Truncates <code>_value</code> to a <code>long</code>, instead of saturating as a plain cast does.
+   *
+   * @throws ArithmeticException if <code>_value</code> is not a number or does not fit a <code>long</code>
+   */
+  static long toLong(double _value) {
+    if (!(Math.abs(_value) < 0x1p63)) {
+      throw new ArithmeticException("Value does not fit a long: " + _value);
+    }
+    return (long) _value;
+  }
+
+  /**
+   * Returns <code>(_value * _multiplier) / _divisor</code>, the last step of the conversions
+   * above, without overflowing in the product: the result is the same as the one of plain
+   * <code>long</code> arithmetic whenever the product fits a <code>long</code>, and exact when
+   * only the result does.
+   *
+   * @throws ArithmeticException if the result does not fit a <code>long</code>
+   */
+  static long scale(long _value, long _multiplier, long _divisor) {
+    long quotient = _value / _divisor;
+    long remainder = _value % _divisor;
+    return Math.addExact(Math.multiplyExact(quotient, _multiplier), (remainder * _multiplier) / _divisor);
+  }
+
   public long getSeconds() {
     return this.unitCounter;
   }
@@ -215,7 +347,7 @@ public class UnitCounter implements Cloneable {
    * @param newCounter
    */
   public void addCounter(UnitCounter newCounter) {
-  	if (newCounter.getType().equals(this.getType())) {
+  	if (newCounter.counterTag == this.counterTag) {
   		this.setUnits(getUnits() + newCounter.getUnits());
   	} else {
   		throw new IllegalArgumentException("Can't add different and not compatible UNITS. Current UC:" +
@@ -224,64 +356,292 @@ public class UnitCounter implements Cloneable {
   }
 
   public String toString() {
-    String ret = null;
-    if(this.getType().equals(UNIT_COUNTER)) {
-      ret = this.unitCounter + " unidade(s)";
-    } else if(this.getType().equals(TIME_COUNTER)) {
-      Object[] param = {new Integer((int) this.unitCounter/3600),
-          				new Integer((int) (this.unitCounter%3600)/60),
-          				new Integer((int) this.unitCounter%60)};
-      ret = ((MessageFormat) formatter.get()).format(param);
-    } else if(this.getType().equals(DATA_COUNTER)) {
-      ret = this.unitCounter + " bytes";
-    }
-    return ret;
+    return formatTo(this.counterTag, this.unitCounter, new StringBuilder(24)).toString();
   }
 
+  /**
+   * Appends the same text as {@link #toString()} to <code>_buffer</code>, without creating
+   * any other object.
+   *
+   * @return <code>_buffer</code>
+   */
+  public StringBuilder formatTo(StringBuilder _buffer) {
+    return formatTo(this.counterTag, this.unitCounter, _buffer);
+  }
+
+  /**
+   * Appends the same text as {@link #toString()} to <code>_out</code>.
+   */
+  public void formatTo(Appendable _out) throws IOException {
+    formatTo(this.counterTag, this.unitCounter, _out);
+  }
+
+  /**
+   * Writes the same text as {@link #toString()} to <code>_buffer</code>, one ASCII byte per
+   * character, starting at its position.
+   *
+   * @throws BufferOverflowException if the text does not fit in the remaining bytes
+   */
+  public void formatTo(ByteBuffer _buffer) {
+    formatTo(this.counterTag, this.unitCounter, _buffer);
+  }
+
+  /**
+   * Replaces this counter with the one described by <code>val</code>, a text in the format of
+   * {@link #toString()}.
+   *
+   * @see #parse(CharSequence, int, int)
+   */
   public void parse(String val) {
+    parse(val, 0, val.length());
+  }
+
+  /**
+   * Replaces this counter with the one described by the <code>_length</code> characters of
+   * <code>_text</code> starting at <code>_offset</code>, in the format of {@link #toString()}:
+   * <code>"<i>n</i> unidade(s)"</code> for unit counters, <code>"<i>n</i> bytes"</code> for
+   * data counters and <code>"<i>hh</i>h<i>mm</i>m<i>ss</i>s"</code> for time counters, where
+   * hours may have any number of digits. Time texts with invalid numbers give an empty time
+   * counter, and texts in no known format give an empty unit counter.
+   *
+   * @throws NumberFormatException if the number of a unit or data counter is invalid
+   */
+  public void parse(CharSequence _text, int _offset, int _length) {
+    int end = _offset + _length;
     long value = 0;
-    String type = UnitCounter.UNIT_COUNTER;
-    if(val.endsWith(" unidade(s)")) {
-      String aux = val.substring(0, val.length()-11);
-      value = Long.parseLong(aux);
-      type = UnitCounter.UNIT_COUNTER;
-    } else if (val.endsWith(" bytes")) {
-      String aux = val.substring(0, val.length()-6);
-      value = Long.parseLong(aux);
-      type = UnitCounter.DATA_COUNTER;
-    } else if ((val.charAt(2) == 'h') && (val.charAt(5)=='m') && (val.charAt(8)=='s')) {
-      //MessageFormat formatter = new MessageFormat("{0,number,00}h{1,number,00}m{2,number,00}s");
-      try {
-        Object[] result = ((MessageFormat)formatter.get()).parse(val);
-        value = ((Number)result[0]).intValue() * 3600 +
-                ((Number)result[1]).intValue() * 60 +
-                ((Number)result[2]).intValue();
-      } catch (ParseException e) {
-        e.printStackTrace();
-      }
-      type = UnitCounter.TIME_COUNTER;
+    byte tag = UNIT_TAG;
+    if (endsWith(_text, _offset, end, UNIT_SUFFIX)) {
+      value = parseLong(_text, _offset, end - UNIT_SUFFIX.length());
+      tag = UNIT_TAG;
+    } else if (endsWith(_text, _offset, end, DATA_SUFFIX)) {
+      value = parseLong(_text, _offset, end - DATA_SUFFIX.length());
+      tag = DATA_TAG;
+    } else if (isTime(_text, _offset, end)) {
+      value = parseTime(_text, _offset, end);
+      tag = TIME_TAG;
     }
-    this.setType(type);
+    this.setTag(tag);
     this.addUnits(value);
   }
 
   public static String format(String type, long units) {
-    String ret = null;
-    if(type.equals(UNIT_COUNTER)) {
-      ret = units + " unidade(s)";
-    } else if(type.equals(TIME_COUNTER)) {
-      Object[] param = {new Integer((int) units/3600),
-                  new Integer((int) (units%3600)/60),
-                  new Integer((int) units%60)};
-      ret = ((MessageFormat) formatter.get()).format(param);
-    } else if(type.equals(DATA_COUNTER)) {
-      ret = units + " bytes";
+    if (!(type.equals(UNIT_COUNTER) || type.equals(TIME_COUNTER) || type.equals(DATA_COUNTER))) {
+      return null;
+    }
+    return formatTo(type, units, new StringBuilder(24)).toString();
+  }
+
+  /**
+   * Appends the text of {@link #format(String, long)} to <code>_buffer</code>, without creating
+   * any other object. Time counters are written as <code>hh</code>h<code>mm</code>m<code>ss</code>s,
+   * with as many hour digits as needed.
+   *
+   * @return <code>_buffer</code>
+   * @throws IllegalArgumentException if the type is unknown
+   */
+  public static StringBuilder formatTo(String _type, long _units, StringBuilder _buffer) {
+    return formatTo(tagOf(_type), _units, _buffer);
+  }
+
+  private static StringBuilder formatTo(byte _tag, long _units, StringBuilder _buffer) {
+    try {
+      formatTo(_tag, _units, (Appendable) _buffer);
+    } catch (IOException ioe) {
+      // StringBuilder never throws it
+      throw new IllegalStateException(ioe);
+    }
+    return _buffer;
+  }
+
+  /**
+   * Same as {@link #formatTo(String, long, StringBuilder)}, for any <code>Appendable</code>.
+   */
+  public static void formatTo(String _type, long _units, Appendable _out) throws IOException {
+    formatTo(tagOf(_type), _units, _out);
+  }
+
+  private static void formatTo(byte _tag, long _units, Appendable _out) throws IOException {
+    switch (_tag) {
+      case UNIT_TAG:
+        appendNumber(_units, 1, _out);
+        _out.append(UNIT_SUFFIX);
+        break;
+      case DATA_TAG:
+        appendNumber(_units, 1, _out);
+        _out.append(DATA_SUFFIX);
+        break;
+      default:
+        appendNumber(_units / 3600, 2, _out);
+        _out.append('h');
+        appendNumber((_units % 3600) / 60, 2, _out);
+        _out.append('m');
+        appendNumber(_units % 60, 2, _out);
+        _out.append('s');
+        break;
+    }
+  }
+
+  /**
+   * Same as {@link #formatTo(String, long, StringBuilder)}, writing one ASCII byte per character.
+   *
+   * @throws BufferOverflowException if the text does not fit in the remaining bytes
+   */
+  public static void formatTo(String _type, long _units, ByteBuffer _buffer) {
+    formatTo(tagOf(_type), _units, _buffer);
+  }
+
+  private static void formatTo(byte _tag, long _units, ByteBuffer _buffer) {
+    switch (_tag) {
+      case UNIT_TAG:
+        putNumber(_units, 1, _buffer);
+        putAscii(UNIT_SUFFIX, _buffer);
+        break;
+      case DATA_TAG:
+        putNumber(_units, 1, _buffer);
+        putAscii(DATA_SUFFIX, _buffer);
+        break;
+      default:
+        putNumber(_units / 3600, 2, _buffer);
+        _buffer.put((byte) 'h');
+        putNumber((_units % 3600) / 60, 2, _buffer);
+        _buffer.put((byte) 'm');
+        putNumber(_units % 60, 2, _buffer);
+        _buffer.put((byte) 's');
+        break;
+    }
+  }
+
+  /**
+   * Appends <code>_value</code> with at least <code>_minDigits</code> digits, as the
+   * <code>"00"</code> pattern of <code>DecimalFormat</code> does for two digits.
+   */
+  private static void appendNumber(long _value, int _minDigits, Appendable _out) throws IOException {
+    if (_value < 0) {
+      _out.append('-');
+    }
+    int digits = digitCount(_value);
+    for (int i = digits; i < _minDigits; i++) {
+      _out.append('0');
+    }
+    for (int i = digits - 1; i >= 0; i--) {
+      _out.append(digitAt(_value, i));
+    }
+  }
+
+  private static void putNumber(long _value, int _minDigits, ByteBuffer _buffer) {
+    if (_value < 0) {
+      _buffer.put((byte) '-');
+    }
+    int digits = digitCount(_value);
+    for (int i = digits; i < _minDigits; i++) {
+      _buffer.put((byte) '0');
+    }
+    for (int i = digits - 1; i >= 0; i--) {
+      _buffer.put((byte) digitAt(_value, i));
+    }
+  }
+
+  private static void putAscii(String _text, ByteBuffer _buffer) {
+    for (int i = 0; i < _text.length(); i++) {
+      _buffer.put((byte) _text.charAt(i));
+    }
+  }
+
+  /**
+   * Returns the number of decimal digits of <code>_value</code>, ignoring its sign.
+   */
+  private static int digitCount(long _value) {
+    int digits = 1;
+    while ((digits < POWERS_OF_TEN.length) && ((_value >= POWERS_OF_TEN[digits]) || (_value <= -POWERS_OF_TEN[digits]))) {
+      digits++;
+    }
+    return digits;
+  }
+
+  /**
+   * Returns the decimal digit of <code>_value</code> at the given power of ten, ignoring its sign.
+   */
+  private static char digitAt(long _value, int _power) {
+    long digit = (_value / POWERS_OF_TEN[_power]) % 10;
+    return (char) ('0' + ((digit < 0) ? -digit : digit));
+  }
+
+  private static boolean endsWith(CharSequence _text, int _start, int _end, String _suffix) {
+    int from = _end - _suffix.length();
+    if (from < _start) {
+      return false;
+    }
+    for (int i = 0; i < _suffix.length(); i++) {
+      if (_text.charAt(from + i) != _suffix.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Parses a number the same way <code>Long.parseLong(String)</code> does.
+   */
+  private static long parseLong(CharSequence _text, int _start, int _end) {
+    int pos = _start;
+    boolean negative = false;
+    if ((pos < _end) && ((_text.charAt(pos) == '-') || (_text.charAt(pos) == '+'))) {
+      negative = (_text.charAt(pos) == '-');
+      pos++;
+    }
+    if (pos == _end) {
+      throw new NumberFormatException("For input string: \"" + _text.subSequence(_start, _end) + "\"");
+    }
+    // accumulated as a negative number, which reaches Long.MIN_VALUE
+    long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+    long result = 0;
+    for (; pos < _end; pos++) {
+      int digit = _text.charAt(pos) - '0';
+      if ((digit < 0) || (digit > 9) || (result < limit / 10) || (result * 10 < limit + digit)) {
+        throw new NumberFormatException("For input string: \"" + _text.subSequence(_start, _end) + "\"");
+      }
+      result = (result * 10) - digit;
+    }
+    return negative ? result : -result;
+  }
+
+  /**
+   * Tells if the text has the shape of a time counter: an <code>'h'</code>, then an
+   * <code>'m'</code> and then an <code>'s'</code>, after at least one character each.
+   */
+  private static boolean isTime(CharSequence _text, int _start, int _end) {
+    int h = indexOf(_text, 'h', _start + 1, _end);
+    int m = (h < 0) ? -1 : indexOf(_text, 'm', h + 2, _end);
+    return (m >= 0) && (indexOf(_text, 's', m + 2, _end) >= 0);
+  }
+
+  private static int indexOf(CharSequence _text, char _c, int _from, int _end) {
+    for (int i = _from; i < _end; i++) {
+      if (_text.charAt(i) == _c) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Parses the hours, minutes and seconds of a time counter, or returns <code>0</code> if any
+   * of them is not a number. Text after the seconds is ignored.
+   */
+  private static long parseTime(CharSequence _text, int _start, int _end) {
+    int h = indexOf(_text, 'h', _start + 1, _end);
+    int m = indexOf(_text, 'm', h + 2, _end);
+    int s = indexOf(_text, 's', m + 2, _end);
+    try {
+      return (parseLong(_text, _start, h) * 3600) + (parseLong(_text, h + 1, m) * 60) + parseLong(_text, m + 1, s);
+    } catch (NumberFormatException nfe) {
+      return 0;
     }
-    return ret;
   }
 
   public Object clone() {
-	  UnitCounter clone = new UnitCounter(this.getType());
+	  UnitCounter clone = new UnitCounter();
+	  clone.setTag(this.counterTag);
 	  clone.setUnits(this.getUnits());
 	  return clone;
   }
@@ -289,7 +649,7 @@ public class UnitCounter implements Cloneable {
   public boolean equalsType(Object obj) {
   	if (obj instanceof UnitCounter) {
   		UnitCounter input = (UnitCounter) obj;
-  		if (input.getType().equals(this.getType())) {
+  		if (input.counterTag == this.counterTag) {
   			return true;
   		}
   	}
@@ -299,7 +659,7 @@ public class UnitCounter implements Cloneable {
 	public boolean equals(Object obj) {
 		if (obj instanceof UnitCounter) {
 			UnitCounter input = (UnitCounter) obj;
-			if (input.getType().equals(this.getType())) {
+			if (input.counterTag == this.counterTag) {
 				if (input.getUnits() == this.getUnits()) {
 					return true;
 				}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Compact binary form of {@link UnitCounter}s, for spilling counters to disk or passing them
+ * 	between processes without the text round trip of <code>toString()</code> and <code>parse</code>.
+ * <p>
+ * Each counter takes one byte for its type (<code>1</code> for time, <code>2</code> for data and
+ * 	<code>3</code> for unit counters) followed by its units as a zig-zag encoded varint: seven bits
+ * 	per byte, least significant first, with the high bit set on every byte but the last. Counters
+ * 	under 64 units take two bytes and no counter takes more than eleven.
+ *
+ * @version $Id$
+ */
+public final class UnitCounterCodec {
+
+	/** The largest number of bytes a single counter takes. */
+	public static final int MAX_ENCODED_LENGTH = 11;
+
+
+	private UnitCounterCodec() {}
+
+	/**
+	 * Returns how many bytes <code>_counter</code> takes once encoded.
+	 */
+	public static int encodedLength(UnitCounter _counter) {
+		return 1 + varintLength(zigZag(_counter.getUnits()));
+	}
+
+	/**
+	 * Writes <code>_counter</code> at the position of <code>_buffer</code>, moving it past the
+	 * 	written bytes.
+	 *
+	 * @throws BufferOverflowException if the counter does not fit in the remaining bytes, in
+	 * 	which case nothing is written
+	 */
+	public static void write(UnitCounter _counter, ByteBuffer _buffer) {
+		write(_counter.getTag(), _counter.getUnits(), _buffer);
+	}
+
+	/**
+	 * Same as {@link #write(UnitCounter, ByteBuffer)}, for a counter given by its type and units.
+	 *
+	 * @throws IllegalArgumentException if the type is unknown
+	 */
+	public static void write(String _type, long _units, ByteBuffer _buffer) {
+		write(UnitCounter.tagOf(_type), _units, _buffer);
+	}
+
+	static void write(byte _tag, long _units, ByteBuffer _buffer) {
+		long value = zigZag(_units);
+		if (_buffer.remaining() < 1 + varintLength(value)) {
+			throw new BufferOverflowException();
+		}
+		_buffer.put(_tag);
+		while ((value & ~0x7FL) != 0) {
+			_buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		_buffer.put((byte) value);
+	}
+
+	/**
+	 * Reads a counter from the position of <code>_buffer</code>, moving it past the read bytes.
+	 *
+	 * @throws BufferUnderflowException if the buffer ends in the middle of the counter, in which
+	 * 	case its position is left unchanged
+	 * @throws IllegalArgumentException if the bytes are not a valid counter
+	 */
+	public static UnitCounter read(ByteBuffer _buffer) {
+		int start = _buffer.position();
+		try {
+			byte tag = _buffer.get();
+			String type = UnitCounter.typeOf(tag);
+			UnitCounter counter = new UnitCounter(type);
+			counter.setUnits(readUnits(_buffer));
+			return counter;
+		} catch (BufferUnderflowException bue) {
+			_buffer.position(start);
+			throw bue;
+		} catch (IllegalArgumentException iae) {
+			_buffer.position(start);
+			throw iae;
+		}
+	}
+
+	/**
+	 * Writes <code>_length</code> counters of <code>_counters</code>, starting at <code>_offset</code>.
+	 *
+	 * @return how many counters were written, which is less than <code>_length</code> when the
+	 * 	buffer fills up; the buffer then ends right after the last whole counter
+	 */
+	public static int write(UnitCounter[] _counters, int _offset, int _length, ByteBuffer _buffer) {
+		for (int i = 0; i < _length; i++) {
+			UnitCounter counter = _counters[_offset + i];
+			long value = zigZag(counter.getUnits());
+			if (_buffer.remaining() < 1 + varintLength(value)) {
+				return i;
+			}
+			write(counter.getTag(), counter.getUnits(), _buffer);
+		}
+		return _length;
+	}
+
+	/**
+	 * Reads up to <code>_length</code> counters into <code>_counters</code>, starting at
+	 * 	<code>_offset</code>.
+	 *
+	 * @return how many counters were read, which is less than <code>_length</code> when the
+	 * 	buffer ends first; a counter cut at the end of the buffer is left unread
+	 * @throws IllegalArgumentException if the bytes are not valid counters
+	 */
+	public static int read(ByteBuffer _buffer, UnitCounter[] _counters, int _offset, int _length) {
+		for (int i = 0; i < _length; i++) {
+			if (!_buffer.hasRemaining()) {
+				return i;
+			}
+			try {
+				_counters[_offset + i] = read(_buffer);
+			} catch (BufferUnderflowException bue) {
+				return i;
+			}
+		}
+		return _length;
+	}
+
+	private static long readUnits(ByteBuffer _buffer) {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = _buffer.get();
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return (value >>> 1) ^ -(value & 1);
+			}
+		}
+		throw new IllegalArgumentException("Malformed counter units at position " + _buffer.position());
+	}
+
+	private static long zigZag(long _value) {
+		return (_value << 1) ^ (_value >> 63);
+	}
+
+	private static int varintLength(long _value) {
+		int length = 1;
+		while ((_value & ~0x7FL) != 0) {
+			_value >>>= 7;
+			length++;
+		}
+		return length;
+	}
+}
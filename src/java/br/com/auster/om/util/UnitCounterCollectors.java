@@ -0,0 +1,406 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * <code>Collector</code>s which aggregate unit counters with the rules of
+ * 	{@link UnitCounter#addCounter(UnitCounter)}: counters of the same type are summed, and
+ * 	counters of different types throw an <code>IllegalArgumentException</code>. The counters of
+ * 	the stream are never changed.
+ * <p>
+ * Every collector can be used with parallel streams. The plain ones fill one container per
+ * 	thread and merge them at the end. The <code>Concurrent</code> ones share a single container,
+ * 	which is updated without locking through the <code>LongAdder</code> cells of
+ * 	{@link ConcurrentUnitCounter}, and are unordered.
+ *
+ * @version $Id$
+ */
+public final class UnitCounterCollectors {
+
+	private UnitCounterCollectors() {
+	}
+
+	/**
+	 * Sums counters of a single type, which is set by the first counter. An empty stream gives
+	 * 	an empty {@link UnitCounter#UNIT_COUNTER unit counter}, as <code>new UnitCounter()</code>.
+	 */
+	public static Collector<UnitCounter, ?, UnitCounter> summing() {
+		return Collector.of(
+				new Supplier<Sum>() {
+					public Sum get() {
+						return new Sum();
+					}
+				},
+				new BiConsumer<Sum, UnitCounter>() {
+					public void accept(Sum _sum, UnitCounter _counter) {
+						_sum.add(_counter);
+					}
+				},
+				new BinaryOperator<Sum>() {
+					public Sum apply(Sum _left, Sum _right) {
+						if (_right.counter != null) {
+							_left.add(_right.counter);
+						}
+						return _left;
+					}
+				},
+				new Function<Sum, UnitCounter>() {
+					public UnitCounter apply(Sum _sum) {
+						return (_sum.counter == null) ? new UnitCounter() : _sum.counter;
+					}
+				});
+	}
+
+	/**
+	 * Sums counters of type <code>_type</code>. An empty stream gives an empty counter of that type.
+	 *
+	 * @throws IllegalArgumentException if the type is unknown
+	 */
+	public static Collector<UnitCounter, ?, UnitCounter> summing(String _type) {
+		final String type = UnitCounter.typeOf(UnitCounter.tagOf(_type));
+		return Collector.of(
+				new Supplier<UnitCounter>() {
+					public UnitCounter get() {
+						return new UnitCounter(type);
+					}
+				},
+				new BiConsumer<UnitCounter, UnitCounter>() {
+					public void accept(UnitCounter _sum, UnitCounter _counter) {
+						_sum.addCounter(_counter);
+					}
+				},
+				new BinaryOperator<UnitCounter>() {
+					public UnitCounter apply(UnitCounter _left, UnitCounter _right) {
+						_left.addCounter(_right);
+						return _left;
+					}
+				});
+	}
+
+	/**
+	 * Same as {@link #summing(String)}, with a single container shared by all threads.
+	 */
+	public static Collector<UnitCounter, ?, UnitCounter> summingConcurrent(String _type) {
+		final String type = UnitCounter.typeOf(UnitCounter.tagOf(_type));
+		return Collector.of(
+				new Supplier<ConcurrentUnitCounter>() {
+					public ConcurrentUnitCounter get() {
+						return new ConcurrentUnitCounter(type);
+					}
+				},
+				new BiConsumer<ConcurrentUnitCounter, UnitCounter>() {
+					public void accept(ConcurrentUnitCounter _sum, UnitCounter _counter) {
+						_sum.addCounter(_counter);
+					}
+				},
+				new BinaryOperator<ConcurrentUnitCounter>() {
+					public ConcurrentUnitCounter apply(ConcurrentUnitCounter _left, ConcurrentUnitCounter _right) {
+						_left.addCounter(_right.snapshot());
+						return _left;
+					}
+				},
+				new Function<ConcurrentUnitCounter, UnitCounter>() {
+					public UnitCounter apply(ConcurrentUnitCounter _sum) {
+						return _sum.snapshot();
+					}
+				},
+				Collector.Characteristics.CONCURRENT, Collector.Characteristics.UNORDERED);
+	}
+
+	/**
+	 * Sums counters of every type at once, each into the total of its own type.
+	 */
+	public static Collector<UnitCounter, ?, UnitCounterTotals> totals() {
+		return Collector.of(
+				new Supplier<UnitCounterTotals>() {
+					public UnitCounterTotals get() {
+						return new UnitCounterTotals();
+					}
+				},
+				new BiConsumer<UnitCounterTotals, UnitCounter>() {
+					public void accept(UnitCounterTotals _totals, UnitCounter _counter) {
+						_totals.add(_counter);
+					}
+				},
+				new BinaryOperator<UnitCounterTotals>() {
+					public UnitCounterTotals apply(UnitCounterTotals _left, UnitCounterTotals _right) {
+						_left.addAll(_right);
+						return _left;
+					}
+				});
+	}
+
+	/**
+	 * Same as {@link #totals()}, with a single container shared by all threads.
+	 */
+	public static Collector<UnitCounter, ?, UnitCounterTotals> totalsConcurrent() {
+		return Collector.of(
+				new Supplier<ConcurrentTotals>() {
+					public ConcurrentTotals get() {
+						return new ConcurrentTotals();
+					}
+				},
+				new BiConsumer<ConcurrentTotals, UnitCounter>() {
+					public void accept(ConcurrentTotals _totals, UnitCounter _counter) {
+						_totals.add(_counter);
+					}
+				},
+				new BinaryOperator<ConcurrentTotals>() {
+					public ConcurrentTotals apply(ConcurrentTotals _left, ConcurrentTotals _right) {
+						_left.addAll(_right);
+						return _left;
+					}
+				},
+				new Function<ConcurrentTotals, UnitCounterTotals>() {
+					public UnitCounterTotals apply(ConcurrentTotals _totals) {
+						return _totals.snapshot();
+					}
+				},
+				Collector.Characteristics.CONCURRENT, Collector.Characteristics.UNORDERED);
+	}
+
+	/**
+	 * Collects the statistics of counters of a single type, each counter being one observation.
+	 * 	The type is set by the first counter. An empty stream gives empty statistics of
+	 * 	{@link UnitCounter#UNIT_COUNTER unit counters}, as <code>new UnitCounterStatistics()</code>.
+	 */
+	public static Collector<UnitCounter, ?, UnitCounterStatistics> statistics() {
+		return Collector.of(
+				new Supplier<Statistics>() {
+					public Statistics get() {
+						return new Statistics();
+					}
+				},
+				new BiConsumer<Statistics, UnitCounter>() {
+					public void accept(Statistics _statistics, UnitCounter _counter) {
+						_statistics.add(_counter);
+					}
+				},
+				new BinaryOperator<Statistics>() {
+					public Statistics apply(Statistics _left, Statistics _right) {
+						if (_right.statistics != null) {
+							_left.addAll(_right.statistics);
+						}
+						return _left;
+					}
+				},
+				new Function<Statistics, UnitCounterStatistics>() {
+					public UnitCounterStatistics apply(Statistics _statistics) {
+						return (_statistics.statistics == null) ? new UnitCounterStatistics() : _statistics.statistics;
+					}
+				});
+	}
+
+	/**
+	 * Same as {@link #statistics()}, for counters of type <code>_type</code>. An empty stream gives
+	 * 	empty statistics of that type.
+	 *
+	 * @throws IllegalArgumentException if the type is unknown
+	 */
+	public static Collector<UnitCounter, ?, UnitCounterStatistics> statistics(String _type) {
+		final String type = UnitCounter.typeOf(UnitCounter.tagOf(_type));
+		return Collector.of(
+				new Supplier<UnitCounterStatistics>() {
+					public UnitCounterStatistics get() {
+						return new UnitCounterStatistics(type);
+					}
+				},
+				new BiConsumer<UnitCounterStatistics, UnitCounter>() {
+					public void accept(UnitCounterStatistics _statistics, UnitCounter _counter) {
+						_statistics.addCounter(_counter);
+					}
+				},
+				new BinaryOperator<UnitCounterStatistics>() {
+					public UnitCounterStatistics apply(UnitCounterStatistics _left, UnitCounterStatistics _right) {
+						_left.addAll(_right);
+						return _left;
+					}
+				});
+	}
+
+	/**
+	 * Sums the counters of the elements with the same <code>long</code> key into a
+	 * 	{@link UnitCounterTable}. As in the table, the type of each key is set by its first counter.
+	 */
+	public static <T> Collector<T, ?, UnitCounterTable> toTable(final ToLongFunction<? super T> _key,
+			final Function<? super T, ? extends UnitCounter> _counter) {
+		return Collector.of(
+				new Supplier<UnitCounterTable>() {
+					public UnitCounterTable get() {
+						return new UnitCounterTable();
+					}
+				},
+				new BiConsumer<UnitCounterTable, T>() {
+					public void accept(UnitCounterTable _table, T _element) {
+						_table.addCounter(_key.applyAsLong(_element), _counter.apply(_element));
+					}
+				},
+				new BinaryOperator<UnitCounterTable>() {
+					public UnitCounterTable apply(UnitCounterTable _left, UnitCounterTable _right) {
+						_left.addAll(_right);
+						return _left;
+					}
+				});
+	}
+
+	/**
+	 * Sums the counters of the elements with the same key, as {@link #summing()} does.
+	 */
+	public static <T, K> Collector<T, ?, Map<K, UnitCounter>> groupingBy(Function<? super T, ? extends K> _key,
+			Function<? super T, ? extends UnitCounter> _counter) {
+		return Collectors.groupingBy(_key, Collectors.mapping(_counter, summing()));
+	}
+
+	/**
+	 * Collects the statistics of the counters of the elements with the same key, as
+	 * 	{@link #statistics()} does.
+	 */
+	public static <T, K> Collector<T, ?, Map<K, UnitCounterStatistics>> groupingByStatistics(
+			Function<? super T, ? extends K> _key, Function<? super T, ? extends UnitCounter> _counter) {
+		return Collectors.groupingBy(_key, Collectors.mapping(_counter, statistics()));
+	}
+
+	/**
+	 * Same as {@link #groupingBy(Function, Function)}, with a single map shared by all threads.
+	 * 	The type of each key is set by the first counter added to it; when a key gets counters of
+	 * 	different types in parallel, which one comes first is not defined.
+	 */
+	public static <T, K> Collector<T, ?, ConcurrentMap<K, ConcurrentUnitCounter>> groupingByConcurrent(
+			final Function<? super T, ? extends K> _key, final Function<? super T, ? extends UnitCounter> _counter) {
+		return Collector.of(
+				new Supplier<ConcurrentMap<K, ConcurrentUnitCounter>>() {
+					public ConcurrentMap<K, ConcurrentUnitCounter> get() {
+						return new ConcurrentHashMap<K, ConcurrentUnitCounter>();
+					}
+				},
+				new BiConsumer<ConcurrentMap<K, ConcurrentUnitCounter>, T>() {
+					public void accept(ConcurrentMap<K, ConcurrentUnitCounter> _map, T _element) {
+						UnitCounter counter = _counter.apply(_element);
+						counterOf(_map, _key.apply(_element), counter.getType()).addCounter(counter);
+					}
+				},
+				new BinaryOperator<ConcurrentMap<K, ConcurrentUnitCounter>>() {
+					public ConcurrentMap<K, ConcurrentUnitCounter> apply(ConcurrentMap<K, ConcurrentUnitCounter> _left,
+							ConcurrentMap<K, ConcurrentUnitCounter> _right) {
+						for (Map.Entry<K, ConcurrentUnitCounter> entry : _right.entrySet()) {
+							UnitCounter counter = entry.getValue().snapshot();
+							counterOf(_left, entry.getKey(), counter.getType()).addCounter(counter);
+						}
+						return _left;
+					}
+				},
+				Collector.Characteristics.CONCURRENT, Collector.Characteristics.UNORDERED,
+				Collector.Characteristics.IDENTITY_FINISH);
+	}
+
+	private static <K> ConcurrentUnitCounter counterOf(ConcurrentMap<K, ConcurrentUnitCounter> _map, K _key, String _type) {
+		ConcurrentUnitCounter counter = _map.get(_key);
+		if (counter == null) {
+			ConcurrentUnitCounter created = new ConcurrentUnitCounter(_type);
+			counter = _map.putIfAbsent(_key, created);
+			if (counter == null) {
+				counter = created;
+			}
+		}
+		return counter;
+	}
+
+	/**
+	 * Container of {@link UnitCounterCollectors#summing()}, empty until the first counter.
+	 */
+	private static final class Sum {
+
+		UnitCounter counter;
+
+		void add(UnitCounter _counter) {
+			if (this.counter == null) {
+				this.counter = (UnitCounter) _counter.clone();
+			} else {
+				this.counter.addCounter(_counter);
+			}
+		}
+	}
+
+	/**
+	 * Container of {@link UnitCounterCollectors#statistics()}, empty until the first counter.
+	 */
+	private static final class Statistics {
+
+		UnitCounterStatistics statistics;
+
+		void add(UnitCounter _counter) {
+			if (this.statistics == null) {
+				this.statistics = new UnitCounterStatistics(_counter.getType());
+			}
+			this.statistics.addCounter(_counter);
+		}
+
+		void addAll(UnitCounterStatistics _other) {
+			if (this.statistics == null) {
+				this.statistics = _other;
+			} else {
+				this.statistics.addAll(_other);
+			}
+		}
+	}
+
+	/**
+	 * Container of {@link UnitCounterCollectors#totalsConcurrent()}.
+	 */
+	private static final class ConcurrentTotals {
+
+		final ConcurrentUnitCounter seconds = new ConcurrentUnitCounter(UnitCounter.TIME_COUNTER);
+		final ConcurrentUnitCounter bytes = new ConcurrentUnitCounter(UnitCounter.DATA_COUNTER);
+		final ConcurrentUnitCounter units = new ConcurrentUnitCounter(UnitCounter.UNIT_COUNTER);
+
+		void add(UnitCounter _counter) {
+			switch (_counter.getTag()) {
+				case UnitCounter.TIME_TAG:
+					this.seconds.addUnits(_counter.getUnits());
+					break;
+				case UnitCounter.DATA_TAG:
+					this.bytes.addUnits(_counter.getUnits());
+					break;
+				default:
+					this.units.addUnits(_counter.getUnits());
+					break;
+			}
+		}
+
+		void addAll(ConcurrentTotals _other) {
+			this.seconds.addUnits(_other.seconds.getUnits());
+			this.bytes.addUnits(_other.bytes.getUnits());
+			this.units.addUnits(_other.units.getUnits());
+		}
+
+		UnitCounterTotals snapshot() {
+			return new UnitCounterTotals(this.seconds.getUnits(), this.bytes.getUnits(), this.units.getUnits());
+		}
+	}
+}
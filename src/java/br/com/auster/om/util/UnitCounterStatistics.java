@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+/**
+ * A unit counter that also keeps statistics about the units added to it: how many times units
+ * 	were added, the smallest and largest amount, the mean and estimated quantiles. Each call of an
+ * 	<code>add</code> method is one observation, so a counter per subscriber fed with its usage
+ * 	records answers every reporting question in a single pass.
+ * <p>
+ * The type rules are those of {@link UnitCounter}: the type is set when the counter is created,
+ * 	the <code>add</code> methods with the same names apply the same conversions and throw an
+ * 	<code>IllegalArgumentException</code> for units of another type, and
+ * 	{@link #addUnits(long)} accepts units of any type. Quantiles come from a mergeable sketch
+ * 	with a fixed relative accuracy, {@link #DEFAULT_RELATIVE_ACCURACY} unless told otherwise.
+ * 	Counters filled in parallel are combined with {@link #addAll(UnitCounterStatistics)}, which
+ * 	gives the same statistics as adding all observations to a single counter.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @see UnitCounterCollectors#statistics()
+ * @version $Id$
+ */
+public class UnitCounterStatistics {
+
+	/** Relative accuracy of the quantiles of counters created without one: 1%. */
+	public static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+
+
+	private final byte counterTag;
+	private long count;
+	private long units;
+	private long min = Long.MAX_VALUE;
+	private long max = Long.MIN_VALUE;
+	private final QuantileSketch sketch;
+
+
+	public UnitCounterStatistics() {
+		this(UnitCounter.UNIT_COUNTER);
+	}
+
+	/**
+	 * @throws IllegalArgumentException if the type is unknown
+	 */
+	public UnitCounterStatistics(String _type) {
+		this(_type, DEFAULT_RELATIVE_ACCURACY);
+	}
+
+	/**
+	 * @param _type the counter type
+	 * @param _relativeAccuracy the relative error allowed for quantiles, between 0 and 1 (exclusive)
+	 *
+	 * @throws IllegalArgumentException if the type is unknown or the accuracy is out of range
+	 */
+	public UnitCounterStatistics(String _type, double _relativeAccuracy) {
+		this.counterTag = UnitCounter.tagOf(_type);
+		this.sketch = new QuantileSketch(_relativeAccuracy);
+	}
+
+	public String getType() {
+		return UnitCounter.typeOf(this.counterTag);
+	}
+
+	public double getRelativeAccuracy() {
+		return this.sketch.getRelativeAccuracy();
+	}
+
+	/**
+	 * Returns how many observations were added.
+	 */
+	public long getCount() {
+		return this.count;
+	}
+
+	/**
+	 * Returns the sum of all units added, as {@link UnitCounter#getUnits()} would.
+	 */
+	public long getUnits() {
+		return this.units;
+	}
+
+	/**
+	 * Returns the smallest amount of units added at once, or 0 if the counter is empty.
+	 */
+	public long getMin() {
+		return (this.count == 0) ? 0 : this.min;
+	}
+
+	/**
+	 * Returns the largest amount of units added at once, or 0 if the counter is empty.
+	 */
+	public long getMax() {
+		return (this.count == 0) ? 0 : this.max;
+	}
+
+	/**
+	 * Returns the mean of the amounts of units added, or 0 if the counter is empty.
+	 */
+	public double getMean() {
+		return (this.count == 0) ? 0 : ((double) this.units) / this.count;
+	}
+
+	/**
+	 * Returns an estimate of the <code>_quantile</code> of the amounts of units added: the amount
+	 * 	found at rank <code>_quantile * (count - 1)</code> once they are sorted, within the relative
+	 * 	accuracy of this counter. Quantiles 0 and 1 are the exact minimum and maximum. Results in 0
+	 * 	if the counter is empty.
+	 *
+	 * @param _quantile between 0 and 1, such as 0.5 for the median or 0.95 for the 95th percentile
+	 *
+	 * @throws IllegalArgumentException if the quantile is out of range
+	 */
+	public long getQuantile(double _quantile) {
+		if (!((_quantile >= 0) && (_quantile <= 1))) {
+			throw new IllegalArgumentException("Invalid quantile = " + _quantile);
+		}
+		if (this.count == 0) {
+			return 0;
+		} else if (_quantile == 0) {
+			return this.min;
+		} else if (_quantile == 1) {
+			return this.max;
+		}
+		double estimate = this.sketch.getQuantile(_quantile);
+		return Math.max(this.min, Math.min(this.max, Math.round(estimate)));
+	}
+
+	public void addUnits(long _units) {
+		record(_units);
+	}
+
+	public void addBytes(long _bytes) {
+		checkTag(UnitCounter.DATA_TAG, "data");
+		record(_bytes);
+	}
+
+	/**
+	 * @throws ArithmeticException if the bytes do not fit a <code>long</code>
+	 */
+	public void addKBytes(double _kbytes) {
+		checkTag(UnitCounter.DATA_TAG, "data");
+		record(UnitCounter.kbytesToBytes(_kbytes));
+	}
+
+	/**
+	 * @throws ArithmeticException if the bytes do not fit a <code>long</code>
+	 */
+	public void addMBytes(double _mbytes) {
+		checkTag(UnitCounter.DATA_TAG, "data");
+		record(UnitCounter.mbytesToBytes(_mbytes));
+	}
+
+	/**
+	 * @throws ArithmeticException if the bytes do not fit a <code>long</code>
+	 */
+	public void addGBytes(double _gbytes) {
+		checkTag(UnitCounter.DATA_TAG, "data");
+		record(UnitCounter.gbytesToBytes(_gbytes));
+	}
+
+	/**
+	 * @throws ArithmeticException if the bytes do not fit a <code>long</code>
+	 */
+	public void addTBytes(double _tbytes) {
+		checkTag(UnitCounter.DATA_TAG, "data");
+		record(UnitCounter.tbytesToBytes(_tbytes));
+	}
+
+	public void addSeconds(long _seconds) {
+		checkTag(UnitCounter.TIME_TAG, "time");
+		record(_seconds);
+	}
+
+	/**
+	 * @throws ArithmeticException if the seconds do not fit a <code>long</code>
+	 */
+	public void addMinutes(double _minutes) {
+		checkTag(UnitCounter.TIME_TAG, "time");
+		record(UnitCounter.minutesToSeconds(_minutes));
+	}
+
+	/**
+	 * @throws ArithmeticException if the seconds do not fit a <code>long</code>
+	 */
+	public void addHours(double _hours) {
+		checkTag(UnitCounter.TIME_TAG, "time");
+		record(UnitCounter.hoursToSeconds(_hours));
+	}
+
+	/**
+	 * Adds the units of <code>_counter</code> as one observation.
+	 *
+	 * @throws IllegalArgumentException if the counter has another type
+	 */
+	public void addCounter(UnitCounter _counter) {
+		if (_counter.getTag() != this.counterTag) {
+			throw new IllegalArgumentException("Can't add a " + _counter.getType() + " counter to " + this);
+		}
+		record(_counter.getUnits());
+	}
+
+	/**
+	 * Adds all observations of <code>_other</code>, so that this counter has the statistics of
+	 * 	both.
+	 *
+	 * @throws IllegalArgumentException if the other counter has another type or relative accuracy
+	 */
+	public void addAll(UnitCounterStatistics _other) {
+		if (_other.counterTag != this.counterTag) {
+			throw new IllegalArgumentException("Can't add the statistics of a " + _other.getType() + " counter to " + this);
+		}
+		this.sketch.addAll(_other.sketch);
+		this.count += _other.count;
+		this.units += _other.units;
+		this.min = Math.min(this.min, _other.min);
+		this.max = Math.max(this.max, _other.max);
+	}
+
+	/**
+	 * Returns a new counter with the sum of the units added.
+	 */
+	public UnitCounter toCounter() {
+		UnitCounter counter = new UnitCounter(getType());
+		counter.setUnits(this.units);
+		return counter;
+	}
+
+	public String toString() {
+		return "[" + UnitCounter.format(getType(), this.units) + ", count=" + this.count + ", min=" + getMin() +
+				", max=" + getMax() + ", mean=" + getMean() + "]";
+	}
+
+	private void checkTag(byte _tag, String _kind) {
+		if (this.counterTag != _tag) {
+			throw new IllegalArgumentException("Can't add " + _kind + " units to a " + getType() + " counter");
+		}
+	}
+
+	private void record(long _units) {
+		this.sketch.add(_units);
+		this.count++;
+		this.units += _units;
+		if (_units < this.min) {
+			this.min = _units;
+		}
+		if (_units > this.max) {
+			this.max = _units;
+		}
+	}
+}
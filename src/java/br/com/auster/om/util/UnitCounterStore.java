@@ -0,0 +1,752 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.zip.CRC32;
+
+/**
+ * A table of unit counters keyed by a <code>long</code>, like {@link UnitCounterTable}, kept in a
+ * 	memory mapped file instead of the heap.
+ * <p>
+ * The file holds a small header followed by an open addressing hash table of fixed size records:
+ * 	the key, the units and the type tag, padded to {@value #RECORD_SIZE} bytes so that no record
+ * 	crosses a disk sector or a page, and is never left half written by a crash. The table size is
+ * 	chosen when the file is created and never changes, so the store holds at most the number of
+ * 	keys given to {@link #create(Path, long)}. Counters follow the same rules as
+ * 	<code>UnitCounterTable</code>: the type of a key is set by its first units and the
+ * 	<code>add</code> methods apply the rounding and type checks of <code>UnitCounter</code>.
+ * <p>
+ * The mapped records only change at a {@link #checkpoint()}. Counters changed since the last
+ * 	checkpoint are kept in a small table on the heap, which is checkpointed automatically once it
+ * 	holds {@link #setMaxPendingKeys(int) enough keys}. A checkpoint first writes the new values to
+ * 	a redo log next to the file (<code><i>file</i>.log</code>) and forces it to disk, then copies
+ * 	them to the mapped records, forces the file and empties the log. If the process dies in
+ * 	between, {@link #open(Path)} either discards an incomplete log or applies a complete one
+ * 	again, so the file always reopens with the counters of the last finished checkpoint.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @version $Id$
+ */
+public class UnitCounterStore implements Closeable {
+
+	/** Size of each record in the file, in bytes. */
+	public static final int RECORD_SIZE = 32;
+
+	/** Default for {@link #setMaxPendingKeys(int)}. */
+	public static final int DEFAULT_MAX_PENDING_KEYS = 1 << 20;
+
+	private static final int MAGIC = 0x4F4D5543; // "OMUC"
+	// version 1 had 24 byte records, which could straddle sectors
+	private static final int VERSION = 2;
+	// a multiple of RECORD_SIZE, so records stay aligned
+	private static final int HEADER_SIZE = 64;
+	private static final int MAGIC_OFFSET = 0;
+	private static final int VERSION_OFFSET = 4;
+	private static final int SLOTS_OFFSET = 8;
+	private static final int SIZE_OFFSET = 16;
+	private static final int CHECKPOINT_OFFSET = 24;
+
+	// record layout
+	private static final int KEY_OFFSET = 0;
+	private static final int UNITS_OFFSET = 8;
+	private static final int TAG_OFFSET = 16;
+
+	// records are mapped in segments of 512MB, since a single mapping is limited to 2GB
+	private static final int SEGMENT_SHIFT = 24;
+	private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+	private static final int LOG_MAGIC = 0x4F4D554C; // "OMUL"
+	// magic, checkpoint and count, then entries, then the CRC32 of everything before it
+	private static final int LOG_HEADER_SIZE = 16;
+	private static final int LOG_ENTRY_SIZE = 17;
+
+	// keys sorted in memory by forEach before they are written to a temporary file, as log entries
+	private static final int SORT_BATCH = 1 << 20;
+	private static final int RUN_BUFFER_SIZE = 64 << 10;
+
+
+	private final Path file;
+	private final FileChannel channel;
+	private final FileChannel logChannel;
+	private final MappedByteBuffer header;
+	private final MappedByteBuffer[] segments;
+	private final long slots;
+	private final long mask;
+	private long size;
+	private long checkpoint;
+	// counters changed since the last checkpoint, with their full units
+	private final UnitCounterTable pending = new UnitCounterTable();
+	// keys of the pending table which are not in the file yet
+	private long pendingNew;
+	private int maxPendingKeys = DEFAULT_MAX_PENDING_KEYS;
+	private boolean closed;
+
+
+	private UnitCounterStore(Path _file, FileChannel _channel, long _slots) throws IOException {
+		this.file = _file;
+		this.channel = _channel;
+		this.slots = _slots;
+		this.mask = _slots - 1;
+		this.header = _channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+		int count = (int) ((_slots + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+		this.segments = new MappedByteBuffer[count];
+		for (int i = 0; i < count; i++) {
+			long first = (long) i << SEGMENT_SHIFT;
+			long records = Math.min(_slots - first, 1L << SEGMENT_SHIFT);
+			this.segments[i] = _channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + (first * RECORD_SIZE),
+					records * RECORD_SIZE);
+		}
+		this.logChannel = FileChannel.open(logFile(_file), StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+	}
+
+	/**
+	 * Creates a new, empty store in <code>_file</code>, which must not exist, able to hold
+	 * 	<code>_maxKeys</code> keys. Disk space is only used as records are written, on file
+	 * 	systems which support sparse files. A redo log left next to <code>_file</code> by an older
+	 * 	store is deleted, and nothing is left behind if the store can not be created.
+	 */
+	public static UnitCounterStore create(Path _file, long _maxKeys) throws IOException {
+		if ((_maxKeys <= 0) || (_maxKeys > (1L << 40))) {
+			throw new IllegalArgumentException("Invalid maximum keys = " + _maxKeys);
+		}
+		long slots = 16;
+		while (slots < _maxKeys * 2) {
+			slots <<= 1;
+		}
+		FileChannel channel = FileChannel.open(_file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		UnitCounterStore store = null;
+		boolean created = false;
+		try {
+			// only a log left by an older store of the same name, which must not be applied to this one
+			Files.deleteIfExists(logFile(_file));
+			store = new UnitCounterStore(_file, channel, slots);
+			store.header.putInt(MAGIC_OFFSET, MAGIC);
+			store.header.putInt(VERSION_OFFSET, VERSION);
+			store.header.putLong(SLOTS_OFFSET, slots);
+			store.header.putLong(SIZE_OFFSET, 0);
+			store.header.putLong(CHECKPOINT_OFFSET, 0);
+			store.header.force();
+			created = true;
+			return store;
+		} finally {
+			if (!created) {
+				if (store != null) {
+					store.logChannel.close();
+				}
+				channel.close();
+				Files.deleteIfExists(logFile(_file));
+				Files.deleteIfExists(_file);
+			}
+		}
+	}
+
+	/**
+	 * Opens a store created by {@link #create(Path, long)}, first completing or discarding the
+	 * 	checkpoint which was running if the store was not closed.
+	 */
+	public static UnitCounterStore open(Path _file) throws IOException {
+		FileChannel channel = FileChannel.open(_file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			ByteBuffer head = ByteBuffer.allocate(HEADER_SIZE);
+			while ((head.hasRemaining()) && (channel.read(head, head.position()) > 0)) {
+				// reads the whole header
+			}
+			if ((head.hasRemaining()) || (head.getInt(MAGIC_OFFSET) != MAGIC)) {
+				throw new IOException("Not a counter store: " + _file);
+			}
+			if (head.getInt(VERSION_OFFSET) != VERSION) {
+				throw new IOException("Unsupported counter store version = " + head.getInt(VERSION_OFFSET));
+			}
+			long slots = head.getLong(SLOTS_OFFSET);
+			if ((Long.bitCount(slots) != 1) || (channel.size() < HEADER_SIZE + (slots * RECORD_SIZE))) {
+				throw new IOException("Truncated counter store: " + _file);
+			}
+			UnitCounterStore store = new UnitCounterStore(_file, channel, slots);
+			store.size = store.header.getLong(SIZE_OFFSET);
+			store.checkpoint = store.header.getLong(CHECKPOINT_OFFSET);
+			store.recover();
+			return store;
+		} catch (IOException ioe) {
+			channel.close();
+			throw ioe;
+		}
+	}
+
+	/**
+	 * Returns the number of keys in this store, including the ones added since the last checkpoint.
+	 */
+	public long size() {
+		return this.size + this.pendingNew;
+	}
+
+	/**
+	 * Returns how many keys this store can hold.
+	 */
+	public long getMaxKeys() {
+		return this.slots / 2;
+	}
+
+	/**
+	 * Returns the number of checkpoints written to this store since it was created.
+	 */
+	public long getCheckpoint() {
+		return this.checkpoint;
+	}
+
+	/**
+	 * Sets how many changed keys are kept on the heap before a checkpoint is made automatically.
+	 */
+	public void setMaxPendingKeys(int _maxPendingKeys) {
+		if (_maxPendingKeys <= 0) {
+			throw new IllegalArgumentException("Invalid maximum pending keys = " + _maxPendingKeys);
+		}
+		this.maxPendingKeys = _maxPendingKeys;
+	}
+
+	public int getMaxPendingKeys() {
+		return this.maxPendingKeys;
+	}
+
+	public boolean contains(long _key) {
+		return (this.pending.slotOf(_key) >= 0) || (find(_key) >= 0);
+	}
+
+	/**
+	 * Returns the counter type of <code>_key</code>, or <code>null</code> if it has no counter.
+	 */
+	public String getType(long _key) {
+		int pendingSlot = this.pending.slotOf(_key);
+		if (pendingSlot >= 0) {
+			return UnitCounter.typeOf(this.pending.tagAt(pendingSlot));
+		}
+		long slot = find(_key);
+		return (slot < 0) ? null : UnitCounter.typeOf(tagAt(slot));
+	}
+
+	/**
+	 * Returns the units counted for <code>_key</code>, or <code>0</code> if it has no counter.
+	 */
+	public long getUnits(long _key) {
+		int pendingSlot = this.pending.slotOf(_key);
+		if (pendingSlot >= 0) {
+			return this.pending.unitsAt(pendingSlot);
+		}
+		long slot = find(_key);
+		return (slot < 0) ? 0 : unitsAt(slot);
+	}
+
+	/**
+	 * Returns a copy of the counter of <code>_key</code>, or <code>null</code> if it has none.
+	 */
+	public UnitCounter get(long _key) {
+		String type = getType(_key);
+		if (type == null) {
+			return null;
+		}
+		UnitCounter counter = new UnitCounter(type);
+		counter.setUnits(getUnits(_key));
+		return counter;
+	}
+
+	/**
+	 * Same as {@link UnitCounterTable#addUnits(long, long)}.
+	 */
+	public void addUnits(long _key, long _units) {
+		load(_key);
+		this.pending.addUnits(_key, _units);
+		changed();
+	}
+
+	public void addBytes(long _key, long _bytes) {
+		load(_key);
+		this.pending.addBytes(_key, _bytes);
+		changed();
+	}
+
+	/**
+	 * @throws ArithmeticException if the bytes do not fit a <code>long</code>
+	 */
+	public void addKBytes(long _key, double _kbytes) {
+		addBytes(_key, UnitCounter.kbytesToBytes(_kbytes));
+	}
+
+	/**
+	 * @throws ArithmeticException if the bytes do not fit a <code>long</code>
+	 */
+	public void addMBytes(long _key, double _mbytes) {
+		addBytes(_key, UnitCounter.mbytesToBytes(_mbytes));
+	}
+
+	/**
+	 * @throws ArithmeticException if the bytes do not fit a <code>long</code>
+	 */
+	public void addGBytes(long _key, double _gbytes) {
+		addBytes(_key, UnitCounter.gbytesToBytes(_gbytes));
+	}
+
+	/**
+	 * @throws ArithmeticException if the bytes do not fit a <code>long</code>
+	 */
+	public void addTBytes(long _key, double _tbytes) {
+		addBytes(_key, UnitCounter.tbytesToBytes(_tbytes));
+	}
+
+	public void addSeconds(long _key, long _seconds) {
+		load(_key);
+		this.pending.addSeconds(_key, _seconds);
+		changed();
+	}
+
+	/**
+	 * @throws ArithmeticException if the seconds do not fit a <code>long</code>
+	 */
+	public void addMinutes(long _key, double _minutes) {
+		addSeconds(_key, UnitCounter.minutesToSeconds(_minutes));
+	}
+
+	/**
+	 * @throws ArithmeticException if the seconds do not fit a <code>long</code>
+	 */
+	public void addHours(long _key, double _hours) {
+		addSeconds(_key, UnitCounter.hoursToSeconds(_hours));
+	}
+
+	/**
+	 * Same as {@link UnitCounter#addCounter(UnitCounter)}: the units of <code>_counter</code> are
+	 * 	added to the counter of <code>_key</code>, which must have the same type.
+	 */
+	public void addCounter(long _key, UnitCounter _counter) {
+		add(_key, _counter.getTag(), _counter.getUnits());
+	}
+
+	/**
+	 * Same as {@link UnitCounterTable#add(long, String, long)}.
+	 *
+	 * @throws IllegalArgumentException if the key already has a counter of another type
+	 */
+	public void add(long _key, String _type, long _units) {
+		add(_key, UnitCounter.tagOf(_type), _units);
+	}
+
+	/**
+	 * Adds every counter of <code>_table</code> to this store, as {@link #add(long, String, long)} does.
+	 */
+	public void addAll(UnitCounterTable _table) {
+		for (int i = 0; i < _table.slots(); i++) {
+			byte tag = _table.tagAt(i);
+			if (tag != 0) {
+				add(_table.keyAt(i), tag, _table.unitsAt(i));
+			}
+		}
+	}
+
+	/**
+	 * Makes every change since the last checkpoint durable. Once this method returns, the
+	 * 	counters survive a crash of the process or of the machine.
+	 */
+	public void checkpoint() throws IOException {
+		checkOpen();
+		if (this.pending.size() == 0) {
+			return;
+		}
+		long next = this.checkpoint + 1;
+		writeLog(next);
+		apply(this.pending, next);
+		clearLog();
+		this.pending.clear();
+		this.pendingNew = 0;
+	}
+
+	/**
+	 * Calls <code>_visitor</code> once for each key of this store, in ascending key order. A
+	 * 	{@link #checkpoint()} is made first. The file is read once: keys are sorted on the heap up
+	 * 	to a million at a time, and larger stores write each sorted batch to a temporary file next
+	 * 	to the store, and then merge those files. The store must not be changed by
+	 * 	<code>_visitor</code>.
+	 */
+	public void forEach(UnitCounterTable.Visitor _visitor) throws IOException {
+		checkpoint();
+		long[] batch = new long[(int) Math.max(1, Math.min(SORT_BATCH, size()))];
+		List<Path> runs = new ArrayList<Path>();
+		try {
+			int count = 0;
+			for (long slot = 0; slot < this.slots; slot++) {
+				if (tagAt(slot) == 0) {
+					continue;
+				}
+				if (count == batch.length) {
+					writeRun(batch, count, runs);
+					count = 0;
+				}
+				batch[count++] = keyAt(slot);
+			}
+			if (runs.isEmpty()) {
+				Arrays.sort(batch, 0, count);
+				for (int i = 0; i < count; i++) {
+					long slot = find(batch[i]);
+					_visitor.visit(batch[i], UnitCounter.typeOf(tagAt(slot)), unitsAt(slot));
+				}
+			} else {
+				writeRun(batch, count, runs);
+				mergeRuns(runs, _visitor);
+			}
+		} finally {
+			for (Path run : runs) {
+				Files.deleteIfExists(run);
+			}
+		}
+	}
+
+	/**
+	 * Checkpoints and closes the files of this store.
+	 */
+	public void close() throws IOException {
+		if (this.closed) {
+			return;
+		}
+		try {
+			checkpoint();
+		} finally {
+			this.closed = true;
+			this.logChannel.close();
+			this.channel.close();
+		}
+	}
+
+	public String toString() {
+		return "UnitCounterStore[" + this.file + ", " + size() + " keys]";
+	}
+
+	private void add(long _key, byte _tag, long _units) {
+		load(_key);
+		this.pending.add(_key, _tag, _units);
+		changed();
+	}
+
+	/**
+	 * Copies the counter of <code>_key</code> from the file to the pending table, so that it can
+	 * 	be changed there.
+	 */
+	private void load(long _key) {
+		checkOpen();
+		if (this.pending.slotOf(_key) >= 0) {
+			return;
+		}
+		long slot = find(_key);
+		if (slot >= 0) {
+			this.pending.add(_key, tagAt(slot), unitsAt(slot));
+		} else if (size() >= getMaxKeys()) {
+			throw new IllegalStateException("Counter store is full: " + this);
+		} else {
+			this.pendingNew++;
+		}
+	}
+
+	private void changed() {
+		if (this.pending.size() >= this.maxPendingKeys) {
+			try {
+				checkpoint();
+			} catch (IOException ioe) {
+				throw new UncheckedIOException(ioe);
+			}
+		}
+	}
+
+	private void checkOpen() {
+		if (this.closed) {
+			throw new IllegalStateException("Counter store is closed: " + this.file);
+		}
+	}
+
+	private void writeLog(long _checkpoint) throws IOException {
+		CRC32 crc = new CRC32();
+		ByteBuffer buffer = ByteBuffer.allocate(64 << 10);
+		buffer.putInt(LOG_MAGIC);
+		buffer.putLong(_checkpoint);
+		buffer.putInt(this.pending.size());
+		this.logChannel.truncate(0);
+		long position = 0;
+		for (int i = 0; i < this.pending.slots(); i++) {
+			byte tag = this.pending.tagAt(i);
+			if (tag == 0) {
+				continue;
+			}
+			if (buffer.remaining() < LOG_ENTRY_SIZE) {
+				position = writeLog(buffer, position, crc);
+			}
+			buffer.putLong(this.pending.keyAt(i));
+			buffer.putLong(this.pending.unitsAt(i));
+			buffer.put(tag);
+		}
+		if (buffer.remaining() < 8) {
+			position = writeLog(buffer, position, crc);
+		}
+		buffer.flip();
+		crc.update(buffer);
+		buffer.limit(buffer.capacity());
+		buffer.putLong(crc.getValue());
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			position += this.logChannel.write(buffer, position);
+		}
+		this.logChannel.force(false);
+	}
+
+	private long writeLog(ByteBuffer _buffer, long _position, CRC32 _crc) throws IOException {
+		_buffer.flip();
+		_crc.update(_buffer.duplicate());
+		while (_buffer.hasRemaining()) {
+			_position += this.logChannel.write(_buffer, _position);
+		}
+		_buffer.clear();
+		return _position;
+	}
+
+	private void clearLog() throws IOException {
+		this.logChannel.truncate(0);
+		this.logChannel.force(false);
+	}
+
+	/**
+	 * Applies the log left by an unfinished checkpoint, if it was completely written.
+	 */
+	private void recover() throws IOException {
+		long length = this.logChannel.size();
+		if (length == 0) {
+			return;
+		}
+		if (length >= LOG_HEADER_SIZE + 8) {
+			ByteBuffer log = this.logChannel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+			int count = log.getInt(12);
+			if ((log.getInt(0) == LOG_MAGIC) && (count >= 0)
+					&& (length == LOG_HEADER_SIZE + ((long) count * LOG_ENTRY_SIZE) + 8)) {
+				ByteBuffer content = log.duplicate();
+				content.limit((int) length - 8);
+				CRC32 crc = new CRC32();
+				crc.update(content);
+				if (crc.getValue() == log.getLong((int) length - 8)) {
+					UnitCounterTable entries = new UnitCounterTable(count);
+					for (int i = 0; i < count; i++) {
+						int offset = LOG_HEADER_SIZE + (i * LOG_ENTRY_SIZE);
+						entries.add(log.getLong(offset), log.get(offset + 16), log.getLong(offset + 8));
+					}
+					apply(entries, log.getLong(4));
+					// keys written before the crash were not counted in the header
+					long keys = 0;
+					for (long slot = 0; slot < this.slots; slot++) {
+						if (tagAt(slot) != 0) {
+							keys++;
+						}
+					}
+					this.size = keys;
+					this.header.putLong(SIZE_OFFSET, keys);
+					this.header.force();
+				}
+			}
+		}
+		clearLog();
+	}
+
+	/**
+	 * Writes the full units of every counter of <code>_entries</code> to the file and forces it.
+	 * 	Doing it twice gives the same file, so a log can be applied again after a crash.
+	 */
+	private void apply(UnitCounterTable _entries, long _checkpoint) {
+		long added = 0;
+		for (int i = 0; i < _entries.slots(); i++) {
+			byte tag = _entries.tagAt(i);
+			if (tag == 0) {
+				continue;
+			}
+			long key = _entries.keyAt(i);
+			long slot = hash(key) & this.mask;
+			while ((tagAt(slot) != 0) && (keyAt(slot) != key)) {
+				slot = (slot + 1) & this.mask;
+			}
+			ByteBuffer segment = this.segments[(int) (slot >>> SEGMENT_SHIFT)];
+			int offset = (int) (slot & SEGMENT_MASK) * RECORD_SIZE;
+			if (segment.get(offset + TAG_OFFSET) == 0) {
+				segment.putLong(offset + KEY_OFFSET, key);
+				added++;
+			}
+			segment.putLong(offset + UNITS_OFFSET, _entries.unitsAt(i));
+			segment.put(offset + TAG_OFFSET, tag);
+		}
+		for (int i = 0; i < this.segments.length; i++) {
+			this.segments[i].force();
+		}
+		this.size += added;
+		this.checkpoint = _checkpoint;
+		this.header.putLong(SIZE_OFFSET, this.size);
+		this.header.putLong(CHECKPOINT_OFFSET, this.checkpoint);
+		this.header.force();
+	}
+
+	/**
+	 * Sorts the first <code>_count</code> keys of <code>_keys</code> and writes them, with their
+	 * 	counters, to a new temporary file added to <code>_runs</code>.
+	 */
+	private void writeRun(long[] _keys, int _count, List<Path> _runs) throws IOException {
+		Arrays.sort(_keys, 0, _count);
+		Path absolute = this.file.toAbsolutePath();
+		Path run = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".run");
+		_runs.add(run);
+		FileChannel channel = FileChannel.open(run, StandardOpenOption.WRITE);
+		try {
+			ByteBuffer buffer = ByteBuffer.allocate(RUN_BUFFER_SIZE);
+			for (int i = 0; i < _count; i++) {
+				if (buffer.remaining() < LOG_ENTRY_SIZE) {
+					writeFully(channel, buffer);
+				}
+				long slot = find(_keys[i]);
+				buffer.putLong(_keys[i]);
+				buffer.putLong(unitsAt(slot));
+				buffer.put(tagAt(slot));
+			}
+			writeFully(channel, buffer);
+		} finally {
+			channel.close();
+		}
+	}
+
+	private static void writeFully(FileChannel _channel, ByteBuffer _buffer) throws IOException {
+		_buffer.flip();
+		while (_buffer.hasRemaining()) {
+			_channel.write(_buffer);
+		}
+		_buffer.clear();
+	}
+
+	/**
+	 * Visits the entries of the sorted files <code>_runs</code>, merged in ascending key order.
+	 */
+	private static void mergeRuns(List<Path> _runs, UnitCounterTable.Visitor _visitor) throws IOException {
+		PriorityQueue<Run> queue = new PriorityQueue<Run>(_runs.size(), new Comparator<Run>() {
+			public int compare(Run _left, Run _right) {
+				return (_left.key < _right.key) ? -1 : ((_left.key == _right.key) ? 0 : 1);
+			}
+		});
+		List<Run> open = new ArrayList<Run>(_runs.size());
+		try {
+			for (Path path : _runs) {
+				Run run = new Run(FileChannel.open(path, StandardOpenOption.READ));
+				open.add(run);
+				if (run.next()) {
+					queue.add(run);
+				}
+			}
+			while (!queue.isEmpty()) {
+				Run run = queue.poll();
+				_visitor.visit(run.key, UnitCounter.typeOf(run.tag), run.units);
+				if (run.next()) {
+					queue.add(run);
+				}
+			}
+		} finally {
+			for (Run run : open) {
+				run.channel.close();
+			}
+		}
+	}
+
+	private long find(long _key) {
+		long slot = hash(_key) & this.mask;
+		while (tagAt(slot) != 0) {
+			if (keyAt(slot) == _key) {
+				return slot;
+			}
+			slot = (slot + 1) & this.mask;
+		}
+		return -1;
+	}
+
+	private byte tagAt(long _slot) {
+		return this.segments[(int) (_slot >>> SEGMENT_SHIFT)].get((int) (_slot & SEGMENT_MASK) * RECORD_SIZE + TAG_OFFSET);
+	}
+
+	private long keyAt(long _slot) {
+		return this.segments[(int) (_slot >>> SEGMENT_SHIFT)].getLong((int) (_slot & SEGMENT_MASK) * RECORD_SIZE + KEY_OFFSET);
+	}
+
+	private long unitsAt(long _slot) {
+		return this.segments[(int) (_slot >>> SEGMENT_SHIFT)].getLong((int) (_slot & SEGMENT_MASK) * RECORD_SIZE + UNITS_OFFSET);
+	}
+
+	private static long hash(long _key) {
+		long h = _key * 0x9E3779B97F4A7C15L;
+		return h ^ (h >>> 32);
+	}
+
+	private static Path logFile(Path _file) {
+		return _file.resolveSibling(_file.getFileName() + ".log");
+	}
+
+	/**
+	 * Reads the entries of a file written by {@link UnitCounterStore#writeRun(long[], int, List)}.
+	 */
+	private static final class Run {
+
+		final FileChannel channel;
+		final ByteBuffer buffer = ByteBuffer.allocate(RUN_BUFFER_SIZE);
+		long key;
+		long units;
+		byte tag;
+
+		Run(FileChannel _channel) {
+			this.channel = _channel;
+			this.buffer.flip();
+		}
+
+		/**
+		 * Reads the next entry, or returns <code>false</code> at the end of the file.
+		 */
+		boolean next() throws IOException {
+			if (this.buffer.remaining() < LOG_ENTRY_SIZE) {
+				this.buffer.compact();
+				while ((this.buffer.position() < LOG_ENTRY_SIZE) && (this.channel.read(this.buffer) > 0)) {
+					// fills at least one entry
+				}
+				this.buffer.flip();
+				if (this.buffer.remaining() < LOG_ENTRY_SIZE) {
+					return false;
+				}
+			}
+			this.key = this.buffer.getLong();
+			this.units = this.buffer.getLong();
+			this.tag = this.buffer.get();
+			return true;
+		}
+	}
+}
@@ -0,0 +1,427 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A table of unit counters keyed by a <code>long</code>, such as an account or subscriber id.
+ * <p>
+ * Each key behaves like its own {@link UnitCounter}: its type is set by the first units added
+ * 	to it and the <code>add</code> methods apply the same rounding and the same type checks as
+ * 	the methods of <code>UnitCounter</code> with the same name. Entries are stored with open
+ * 	addressing in primitive arrays, so no object is created per key.
+ * <p>
+ * This class is not thread-safe. Parallel aggregations should fill one table per thread and
+ * 	merge them with {@link #addAll(UnitCounterTable)}.
+ *
+ * @version $Id$
+ */
+public class UnitCounterTable {
+
+	/**
+	 * Receives the entries of a table, in no particular order.
+	 */
+	public interface Visitor {
+		void visit(long _key, String _type, long _units);
+	}
+
+
+	// largest power of two an array can hold; a table holds at most half as many keys
+	private static final int MAX_CAPACITY = 1 << 30;
+
+
+	private long[] keys;
+	private long[] units;
+	// type tag of each slot; 0 marks a free slot
+	private byte[] tags;
+	private int mask;
+	private int size;
+
+
+	public UnitCounterTable() {
+		this(16);
+	}
+
+	/**
+	 * Creates a table that holds <code>_expectedKeys</code> keys without growing.
+	 *
+	 * @throws IllegalArgumentException if <code>_expectedKeys</code> is negative or more than
+	 * 	a table can hold
+	 */
+	public UnitCounterTable(int _expectedKeys) {
+		if ((_expectedKeys < 0) || (_expectedKeys > MAX_CAPACITY / 2)) {
+			throw new IllegalArgumentException("Invalid expected keys = " + _expectedKeys);
+		}
+		int capacity = 16;
+		while (capacity < _expectedKeys * 2L) {
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public void clear() {
+		Arrays.fill(this.tags, (byte) 0);
+		this.size = 0;
+	}
+
+	public boolean contains(long _key) {
+		return find(_key) >= 0;
+	}
+
+	/**
+	 * Returns the counter type of <code>_key</code>, or <code>null</code> if it has no counter.
+	 */
+	public String getType(long _key) {
+		int slot = find(_key);
+		return (slot < 0) ? null : UnitCounter.typeOf(this.tags[slot]);
+	}
+
+	/**
+	 * Returns the units counted for <code>_key</code>, or <code>0</code> if it has no counter.
+	 */
+	public long getUnits(long _key) {
+		int slot = find(_key);
+		return (slot < 0) ? 0 : this.units[slot];
+	}
+
+	/**
+	 * Returns a copy of the counter of <code>_key</code>, or <code>null</code> if it has none.
+	 */
+	public UnitCounter get(long _key) {
+		int slot = find(_key);
+		if (slot < 0) {
+			return null;
+		}
+		UnitCounter counter = new UnitCounter(UnitCounter.typeOf(this.tags[slot]));
+		counter.setUnits(this.units[slot]);
+		return counter;
+	}
+
+	/**
+	 * Same as {@link UnitCounter#addUnits(long)}: units are added whatever the counter type is.
+	 * 	New keys get a {@link UnitCounter#UNIT_COUNTER unit counter}.
+	 */
+	public void addUnits(long _key, long _units) {
+		int slot = insert(_key, UnitCounter.UNIT_TAG);
+		this.units[slot] += _units;
+	}
+
+	public void addBytes(long _key, long _bytes) {
+		addData(_key, _bytes);
+	}
+
+	/**
+	 * @throws ArithmeticException if the bytes do not fit a <code>long</code>
+	 */
+	public void addKBytes(long _key, double _kbytes) {
+		addData(_key, UnitCounter.kbytesToBytes(_kbytes));
+	}
+
+	/**
+	 * @throws ArithmeticException if the bytes do not fit a <code>long</code>
+	 */
+	public void addMBytes(long _key, double _mbytes) {
+		addData(_key, UnitCounter.mbytesToBytes(_mbytes));
+	}
+
+	/**
+	 * @throws ArithmeticException if the bytes do not fit a <code>long</code>
+	 */
+	public void addGBytes(long _key, double _gbytes) {
+		addData(_key, UnitCounter.gbytesToBytes(_gbytes));
+	}
+
+	/**
+	 * @throws ArithmeticException if the bytes do not fit a <code>long</code>
+	 */
+	public void addTBytes(long _key, double _tbytes) {
+		addData(_key, UnitCounter.tbytesToBytes(_tbytes));
+	}
+
+	public void addSeconds(long _key, long _seconds) {
+		addTime(_key, _seconds);
+	}
+
+	/**
+	 * @throws ArithmeticException if the seconds do not fit a <code>long</code>
+	 */
+	public void addMinutes(long _key, double _minutes) {
+		addTime(_key, UnitCounter.minutesToSeconds(_minutes));
+	}
+
+	/**
+	 * @throws ArithmeticException if the seconds do not fit a <code>long</code>
+	 */
+	public void addHours(long _key, double _hours) {
+		addTime(_key, UnitCounter.hoursToSeconds(_hours));
+	}
+
+	/**
+	 * Same as {@link UnitCounter#addCounter(UnitCounter)}: the units of <code>_counter</code> are
+	 * 	added to the counter of <code>_key</code>, which must have the same type.
+	 */
+	public void addCounter(long _key, UnitCounter _counter) {
+		add(_key, _counter.getTag(), _counter.getUnits());
+	}
+
+	/**
+	 * Adds <code>_units</code> units of type <code>_type</code> to the counter of <code>_key</code>,
+	 * 	with the same type check as {@link UnitCounter#addCounter(UnitCounter)}.
+	 *
+	 * @throws IllegalArgumentException if the key already has a counter of another type
+	 */
+	public void add(long _key, String _type, long _units) {
+		add(_key, UnitCounter.tagOf(_type), _units);
+	}
+
+	void add(long _key, byte _tag, long _units) {
+		int slot = insert(_key, _tag);
+		if (this.tags[slot] != _tag) {
+			throw incompatible(slot, _tag, _units);
+		}
+		this.units[slot] += _units;
+	}
+
+	/**
+	 * Adds every counter of <code>_other</code> to this table, as {@link #add(long, String, long)} does.
+	 */
+	public void addAll(UnitCounterTable _other) {
+		for (int i = 0; i < _other.tags.length; i++) {
+			byte tag = _other.tags[i];
+			if (tag != 0) {
+				int slot = insert(_other.keys[i], tag);
+				if (this.tags[slot] != tag) {
+					throw incompatible(slot, tag, _other.units[i]);
+				}
+				this.units[slot] += _other.units[i];
+			}
+		}
+	}
+
+	/**
+	 * Calls <code>_visitor</code> once for each key of this table.
+	 */
+	public void forEach(Visitor _visitor) {
+		for (int i = 0; i < this.tags.length; i++) {
+			if (this.tags[i] != 0) {
+				_visitor.visit(this.keys[i], UnitCounter.typeOf(this.tags[i]), this.units[i]);
+			}
+		}
+	}
+
+	/**
+	 * Returns the keys of this table, in no particular order. The spliterator splits the slots
+	 * 	of the table in halves, so parallel streams and fork/join tasks can share them out. The
+	 * 	table must not be changed while it is in use.
+	 */
+	public Spliterator.OfLong keySpliterator() {
+		return new KeySpliterator(this.keys, this.tags, 0, this.tags.length, this.size);
+	}
+
+	/**
+	 * Returns a stream of the keys of this table, as given by {@link #keySpliterator()}.
+	 */
+	public LongStream keys() {
+		return StreamSupport.longStream(keySpliterator(), false);
+	}
+
+	/**
+	 * Returns the number of slots of this table, for the slot accessors below.
+	 */
+	int slots() {
+		return this.tags.length;
+	}
+
+	/**
+	 * Returns the tag of the counter in <code>_slot</code>, or <code>0</code> if the slot is free.
+	 */
+	byte tagAt(int _slot) {
+		return this.tags[_slot];
+	}
+
+	long keyAt(int _slot) {
+		return this.keys[_slot];
+	}
+
+	long unitsAt(int _slot) {
+		return this.units[_slot];
+	}
+
+	/**
+	 * Returns the slot of <code>_key</code>, or <code>-1</code> if it has no counter.
+	 */
+	int slotOf(long _key) {
+		return find(_key);
+	}
+
+	private void addData(long _key, long _bytes) {
+		int slot = insert(_key, UnitCounter.DATA_TAG);
+		if (this.tags[slot] != UnitCounter.DATA_TAG) {
+			throw new IllegalArgumentException("Can't add data units to a "+UnitCounter.typeOf(this.tags[slot])+" counter");
+		}
+		this.units[slot] += _bytes;
+	}
+
+	private void addTime(long _key, long _seconds) {
+		int slot = insert(_key, UnitCounter.TIME_TAG);
+		if (this.tags[slot] != UnitCounter.TIME_TAG) {
+			throw new IllegalArgumentException("Can't add time units to a "+UnitCounter.typeOf(this.tags[slot])+" counter");
+		}
+		this.units[slot] += _seconds;
+	}
+
+	private IllegalArgumentException incompatible(int _slot, byte _tag, long _units) {
+		return new IllegalArgumentException("Can't add different and not compatible UNITS. Current UC:" +
+				UnitCounter.format(UnitCounter.typeOf(this.tags[_slot]), this.units[_slot]) +
+				".To be added UC:" + UnitCounter.format(UnitCounter.typeOf(_tag), _units));
+	}
+
+	private int find(long _key) {
+		int slot = hash(_key) & this.mask;
+		while (this.tags[slot] != 0) {
+			if (this.keys[slot] == _key) {
+				return slot;
+			}
+			slot = (slot + 1) & this.mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the slot of <code>_key</code>, creating an empty counter with the given tag if
+	 * 	there is none.
+	 */
+	private int insert(long _key, byte _tag) {
+		int slot = hash(_key) & this.mask;
+		while (this.tags[slot] != 0) {
+			if (this.keys[slot] == _key) {
+				return slot;
+			}
+			slot = (slot + 1) & this.mask;
+		}
+		if ((this.size + 1) * 2 > this.tags.length) {
+			grow();
+			return insert(_key, _tag);
+		}
+		this.keys[slot] = _key;
+		this.units[slot] = 0;
+		this.tags[slot] = _tag;
+		this.size++;
+		return slot;
+	}
+
+	private void grow() {
+		long[] oldKeys = this.keys;
+		long[] oldUnits = this.units;
+		byte[] oldTags = this.tags;
+		if (oldTags.length == MAX_CAPACITY) {
+			throw new IllegalStateException("Table is full, with " + this.size + " keys");
+		}
+		allocate(oldTags.length * 2);
+		for (int i = 0; i < oldTags.length; i++) {
+			if (oldTags[i] != 0) {
+				int slot = hash(oldKeys[i]) & this.mask;
+				while (this.tags[slot] != 0) {
+					slot = (slot + 1) & this.mask;
+				}
+				this.keys[slot] = oldKeys[i];
+				this.units[slot] = oldUnits[i];
+				this.tags[slot] = oldTags[i];
+			}
+		}
+	}
+
+	private void allocate(int _capacity) {
+		this.keys = new long[_capacity];
+		this.units = new long[_capacity];
+		this.tags = new byte[_capacity];
+		this.mask = _capacity - 1;
+	}
+
+	private static final class KeySpliterator implements Spliterator.OfLong {
+
+		private final long[] keys;
+		private final byte[] tags;
+		private int index;
+		private final int fence;
+		private long estimate;
+
+
+		KeySpliterator(long[] _keys, byte[] _tags, int _index, int _fence, long _estimate) {
+			this.keys = _keys;
+			this.tags = _tags;
+			this.index = _index;
+			this.fence = _fence;
+			this.estimate = _estimate;
+		}
+
+		public boolean tryAdvance(LongConsumer _action) {
+			while (this.index < this.fence) {
+				int slot = this.index++;
+				if (this.tags[slot] != 0) {
+					_action.accept(this.keys[slot]);
+					return true;
+				}
+			}
+			return false;
+		}
+
+		public void forEachRemaining(LongConsumer _action) {
+			for (int slot = this.index; slot < this.fence; slot++) {
+				if (this.tags[slot] != 0) {
+					_action.accept(this.keys[slot]);
+				}
+			}
+			this.index = this.fence;
+		}
+
+		public Spliterator.OfLong trySplit() {
+			int middle = (this.index + this.fence) >>> 1;
+			if (middle - this.index < 64) {
+				return null;
+			}
+			// keys are spread evenly over the slots
+			this.estimate >>>= 1;
+			KeySpliterator prefix = new KeySpliterator(this.keys, this.tags, this.index, middle, this.estimate);
+			this.index = middle;
+			return prefix;
+		}
+
+		public long estimateSize() {
+			return this.estimate;
+		}
+
+		public int characteristics() {
+			return Spliterator.DISTINCT | Spliterator.NONNULL;
+		}
+	}
+
+	private static int hash(long _key) {
+		long h = _key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+}
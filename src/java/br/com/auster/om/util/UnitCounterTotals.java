@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+/**
+ * Totals of time, data and unit counters kept side by side, so that counters of every type can
+ * 	be summed in a single pass. Each counter is added to the total of its own type.
+ * <p>
+ * This class is not thread-safe. See {@link UnitCounterCollectors#totalsConcurrent()} for
+ * 	concurrent aggregations.
+ *
+ * @see UnitCounterCollectors#totals()
+ * @version $Id$
+ */
+public class UnitCounterTotals {
+
+	private long seconds;
+	private long bytes;
+	private long units;
+
+
+	public UnitCounterTotals() {
+	}
+
+	UnitCounterTotals(long _seconds, long _bytes, long _units) {
+		this.seconds = _seconds;
+		this.bytes = _bytes;
+		this.units = _units;
+	}
+
+	/**
+	 * Adds the units of <code>_counter</code> to the total of its type.
+	 */
+	public void add(UnitCounter _counter) {
+		switch (_counter.getTag()) {
+			case UnitCounter.TIME_TAG:
+				this.seconds += _counter.getUnits();
+				break;
+			case UnitCounter.DATA_TAG:
+				this.bytes += _counter.getUnits();
+				break;
+			default:
+				this.units += _counter.getUnits();
+				break;
+		}
+	}
+
+	public void addAll(UnitCounterTotals _other) {
+		this.seconds += _other.seconds;
+		this.bytes += _other.bytes;
+		this.units += _other.units;
+	}
+
+	/**
+	 * Returns a new counter with the total of <code>_type</code>.
+	 *
+	 * @throws IllegalArgumentException if the type is unknown
+	 */
+	public UnitCounter get(String _type) {
+		UnitCounter counter = new UnitCounter(_type);
+		switch (counter.getTag()) {
+			case UnitCounter.TIME_TAG:
+				counter.setUnits(this.seconds);
+				break;
+			case UnitCounter.DATA_TAG:
+				counter.setUnits(this.bytes);
+				break;
+			default:
+				counter.setUnits(this.units);
+				break;
+		}
+		return counter;
+	}
+
+	/**
+	 * Returns the total of the time counters.
+	 */
+	public long getSeconds() {
+		return this.seconds;
+	}
+
+	/**
+	 * Returns the total of the data counters.
+	 */
+	public long getBytes() {
+		return this.bytes;
+	}
+
+	/**
+	 * Returns the total of the unit counters.
+	 */
+	public long getUnits() {
+		return this.units;
+	}
+
+	public boolean equals(Object _obj) {
+		if (_obj instanceof UnitCounterTotals) {
+			UnitCounterTotals other = (UnitCounterTotals) _obj;
+			return (other.seconds == this.seconds) && (other.bytes == this.bytes) && (other.units == this.units);
+		}
+		return false;
+	}
+
+	public int hashCode() {
+		long result = (this.seconds * 37 + this.bytes) * 37 + this.units;
+		return (int) (result ^ (result >>> 32));
+	}
+
+	public String toString() {
+		return "[" + UnitCounter.format(UnitCounter.TIME_COUNTER, this.seconds) + ", " +
+				UnitCounter.format(UnitCounter.DATA_COUNTER, this.bytes) + ", " +
+				UnitCounter.format(UnitCounter.UNIT_COUNTER, this.units) + "]";
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+/**
+ * Turns usage quantities of one unit type into the units of a {@link UnitCounter}: seconds
+ * 	for time counters, bytes for data counters and plain units for unit counters.
+ *
+ * @version $Id$
+ * @see UnitTypeRegistry
+ */
+public interface UnitIngester {
+
+	/**
+	 * Returned by {@link #parseUnits(CharSequence, int, int)} for quantities that can not be
+	 * 	converted into counter units.
+	 */
+	long INVALID_UNITS = Long.MIN_VALUE;
+
+	/**
+	 * The type of the counter that receives the converted units: one of
+	 * 	{@link UnitCounter#TIME_COUNTER}, {@link UnitCounter#DATA_COUNTER} or
+	 * 	{@link UnitCounter#UNIT_COUNTER}.
+	 */
+	String getCounterType();
+
+	/**
+	 * Parses the <code>_length</code> characters of <code>_value</code> starting at
+	 * 	<code>_offset</code> and converts the quantity into counter units. Blank quantities
+	 * 	count as zero.
+	 *
+	 * @return the counter units, or {@link #INVALID_UNITS} if the quantity is not valid
+	 */
+	long parseUnits(CharSequence _value, int _offset, int _length);
+
+	/**
+	 * Converts an already parsed quantity into counter units.
+	 *
+	 * @throws ArithmeticException if the units do not fit a <code>long</code>
+	 */
+	long toUnits(double _value);
+
+	/**
+	 * Converts <code>_length</code> quantities of <code>_values</code>, starting at <code>_offset</code>,
+	 * 	each multiplied by <code>_factor</code> first, into the counter units of <code>_units</code>
+	 * 	starting at <code>_unitsOffset</code>. Each result is the same as
+	 * 	<code>toUnits(_values[i] * _factor)</code>.
+	 *
+	 * @throws ArithmeticException if the units of a quantity do not fit a <code>long</code>
+	 */
+	default void toUnits(double[] _values, int _offset, double _factor, long[] _units, int _unitsOffset, int _length) {
+		for (int i = 0; i < _length; i++) {
+			_units[_unitsOffset + i] = toUnits(_values[_offset + i] * _factor);
+		}
+	}
+
+	/**
+	 * Returns the sum of the counter units that {@link #toUnits(double[], int, double, long[], int, int)}
+	 * 	would give, which is what adding each quantity to a counter one at a time gives.
+	 *
+	 * @throws ArithmeticException if the units of a quantity do not fit a <code>long</code>
+	 */
+	default long sumUnits(double[] _values, int _offset, double _factor, int _length) {
+		long sum = 0;
+		for (int i = 0; i < _length; i++) {
+			sum += toUnits(_values[_offset + i] * _factor);
+		}
+		return sum;
+	}
+}
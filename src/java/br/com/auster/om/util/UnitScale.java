@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+/**
+ * The unit types known by {@link UnitCounter}, with the same parsing and rounding rules
+ * 	used by its <code>add</code> methods. Like them, <code>toUnits</code> throws an
+ * 	<code>ArithmeticException</code> for quantities which are not numbers or whose units do not
+ * 	fit a <code>long</code>.
+ *
+ * @version $Id$
+ */
+public enum UnitScale implements UnitIngester {
+
+	SECONDS(UnitCounter.TIME_COUNTER) {
+		public long parseUnits(CharSequence _value, int _offset, int _length) {
+			return parseWhole(_value, _offset, _length);
+		}
+		public long toUnits(double _value) {
+			return UnitCounter.toLong(_value);
+		}
+	},
+	MINUTES(UnitCounter.TIME_COUNTER, UnitCounter.TIME_PRECISION, UnitCounter.MINUTE) {
+		public long toUnits(double _value) {
+			return UnitCounter.minutesToSeconds(_value);
+		}
+	},
+	HOURS(UnitCounter.TIME_COUNTER, UnitCounter.TIME_PRECISION, UnitCounter.HOUR) {
+		public long toUnits(double _value) {
+			return UnitCounter.hoursToSeconds(_value);
+		}
+	},
+	BYTES(UnitCounter.DATA_COUNTER) {
+		public long parseUnits(CharSequence _value, int _offset, int _length) {
+			return parseWhole(_value, _offset, _length);
+		}
+		public long toUnits(double _value) {
+			return UnitCounter.toLong(_value);
+		}
+	},
+	KBYTES(UnitCounter.DATA_COUNTER, UnitCounter.DATA_PRECISION, UnitCounter.KBYTE) {
+		public long toUnits(double _value) {
+			return UnitCounter.kbytesToBytes(_value);
+		}
+	},
+	MBYTES(UnitCounter.DATA_COUNTER, UnitCounter.DATA_PRECISION, UnitCounter.MBYTE) {
+		public long toUnits(double _value) {
+			return UnitCounter.mbytesToBytes(_value);
+		}
+	},
+	GBYTES(UnitCounter.DATA_COUNTER, UnitCounter.DATA_PRECISION, UnitCounter.GBYTE) {
+		public long toUnits(double _value) {
+			return UnitCounter.gbytesToBytes(_value);
+		}
+	},
+	TBYTES(UnitCounter.DATA_COUNTER, UnitCounter.DATA_PRECISION, UnitCounter.TBYTE) {
+		public long toUnits(double _value) {
+			return UnitCounter.tbytesToBytes(_value);
+		}
+	},
+	UNITS(UnitCounter.UNIT_COUNTER) {
+		public long parseUnits(CharSequence _value, int _offset, int _length) {
+			return parseWhole(_value, _offset, _length);
+		}
+		public long toUnits(double _value) {
+			return UnitCounter.toLong(_value);
+		}
+	};
+
+
+	private final String counterType;
+	// fixed point conversion of decimal quantities: rounded to 1/precision, then scaled by multiplier
+	private final long precision;
+	private final int digits;
+	private final long multiplier;
+
+
+	private UnitScale(String _counterType) {
+		this(_counterType, 1, 1);
+	}
+
+	private UnitScale(String _counterType, long _precision, long _multiplier) {
+		this.counterType = _counterType;
+		this.precision = _precision;
+		this.multiplier = _multiplier;
+		int count = 0;
+		for (long p = _precision; p > 1; p /= 10) {
+			count++;
+		}
+		this.digits = count;
+	}
+
+	public String getCounterType() {
+		return this.counterType;
+	}
+
+	/**
+	 * Parses the quantity as {@link ParserUtils#tryParseDouble(CharSequence, int, int)} does and
+	 * 	converts it with {@link #toUnits(double)}. Whole units, seconds and bytes are parsed with
+	 * 	{@link ParserUtils#tryParseInt(CharSequence, int, int)} instead.
+	 * <p>
+	 * Plain decimal texts are converted straight from their digits with integer arithmetic, giving
+	 * 	the same result as the <code>double</code> arithmetic of <code>toUnits</code>, which is only
+	 * 	used for the rare values where the two could differ. Blank quantities count as zero, while
+	 * 	quantities which are not numbers, or whose scaled units do not fit a <code>long</code>, give
+	 * 	{@link UnitIngester#INVALID_UNITS}.
+	 */
+	public long parseUnits(CharSequence _value, int _offset, int _length) {
+		try {
+			long scanned = (_value == null) ? NumberParser.EMPTY : NumberParser.scan(_value, _offset, _offset + _length);
+			if (scanned == NumberParser.EMPTY) {
+				return 0;
+			} else if (scanned < 0) {
+				double value = ParserUtils.tryParseDouble(_value, _offset, _length);
+				return Double.isNaN(value) ? INVALID_UNITS : toUnits(value);
+			}
+			long scaled = NumberParser.toScaled(scanned, this.digits);
+			if (scaled == NumberParser.UNDECIDED) {
+				return toUnits(NumberParser.toDouble(scanned));
+			}
+			return UnitCounter.scale(scaled, this.multiplier, this.precision);
+		} catch (ArithmeticException ae) {
+			return INVALID_UNITS;
+		}
+	}
+
+	private static long parseWhole(CharSequence _value, int _offset, int _length) {
+		if (_value == null) {
+			return 0;
+		}
+		long value = ParserUtils.tryParseInt(_value, _offset, _length);
+		if (value != ParserUtils.INVALID_INT) {
+			return value;
+		}
+		return (NumberParser.scan(_value, _offset, _offset + _length) == NumberParser.EMPTY) ? 0 : INVALID_UNITS;
+	}
+
+	/**
+	 * Same as the default method, with the scale chosen once and a plain loop for each scale.
+	 *
+	 * @throws ArithmeticException if the units of a quantity do not fit a <code>long</code>
+	 */
+	public void toUnits(double[] _values, int _offset, double _factor, long[] _units, int _unitsOffset, int _length) {
+		int end = _offset + _length;
+		int j = _unitsOffset;
+		switch (this) {
+			case MINUTES:
+				for (int i = _offset; i < end; i++) { _units[j++] = UnitCounter.minutesToSeconds(_values[i] * _factor); }
+				break;
+			case HOURS:
+				for (int i = _offset; i < end; i++) { _units[j++] = UnitCounter.hoursToSeconds(_values[i] * _factor); }
+				break;
+			case KBYTES:
+				for (int i = _offset; i < end; i++) { _units[j++] = UnitCounter.kbytesToBytes(_values[i] * _factor); }
+				break;
+			case MBYTES:
+				for (int i = _offset; i < end; i++) { _units[j++] = UnitCounter.mbytesToBytes(_values[i] * _factor); }
+				break;
+			case GBYTES:
+				for (int i = _offset; i < end; i++) { _units[j++] = UnitCounter.gbytesToBytes(_values[i] * _factor); }
+				break;
+			case TBYTES:
+				for (int i = _offset; i < end; i++) { _units[j++] = UnitCounter.tbytesToBytes(_values[i] * _factor); }
+				break;
+			default:
+				// seconds, bytes and units are truncated
+				for (int i = _offset; i < end; i++) { _units[j++] = UnitCounter.toLong(_values[i] * _factor); }
+				break;
+		}
+	}
+
+	/**
+	 * Same as the default method, with the scale chosen once and a plain loop for each scale.
+	 *
+	 * @throws ArithmeticException if the units of a quantity do not fit a <code>long</code>
+	 */
+	public long sumUnits(double[] _values, int _offset, double _factor, int _length) {
+		int end = _offset + _length;
+		long sum = 0;
+		switch (this) {
+			case MINUTES:
+				for (int i = _offset; i < end; i++) { sum += UnitCounter.minutesToSeconds(_values[i] * _factor); }
+				break;
+			case HOURS:
+				for (int i = _offset; i < end; i++) { sum += UnitCounter.hoursToSeconds(_values[i] * _factor); }
+				break;
+			case KBYTES:
+				for (int i = _offset; i < end; i++) { sum += UnitCounter.kbytesToBytes(_values[i] * _factor); }
+				break;
+			case MBYTES:
+				for (int i = _offset; i < end; i++) { sum += UnitCounter.mbytesToBytes(_values[i] * _factor); }
+				break;
+			case GBYTES:
+				for (int i = _offset; i < end; i++) { sum += UnitCounter.gbytesToBytes(_values[i] * _factor); }
+				break;
+			case TBYTES:
+				for (int i = _offset; i < end; i++) { sum += UnitCounter.tbytesToBytes(_values[i] * _factor); }
+				break;
+			default:
+				for (int i = _offset; i < end; i++) { sum += UnitCounter.toLong(_values[i] * _factor); }
+				break;
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+/**
+ * Append-only table of unit names, handing out small <code>int</code> identifiers. Names are
+ * 	matched ignoring case, and an identifier never changes once handed out, so it can be resolved
+ * 	once and reused across reloads of the convertion factors.
+ *
+ * @version $Id$
+ */
+final class UnitSymbols {
+
+	static final int UNKNOWN = -1;
+
+
+	// identifiers are the insertion order of the names
+	private volatile IgnoreCaseTable<Integer> ids = IgnoreCaseTable.empty();
+
+
+	/**
+	 * Returns the identifier of <code>_unit</code>, registering it if needed.
+	 */
+	int intern(String _unit) {
+		Integer id = this.ids.get(_unit);
+		if (id != null) {
+			return id.intValue();
+		}
+		synchronized (this) {
+			id = this.ids.get(_unit);
+			if (id == null) {
+				id = Integer.valueOf(this.ids.size());
+				this.ids = this.ids.with(_unit, id);
+			}
+			return id.intValue();
+		}
+	}
+
+	/**
+	 * Returns the identifier of the <code>_length</code> characters of <code>_unit</code> starting at
+	 * 	<code>_offset</code>, or {@link #UNKNOWN} if it was never registered.
+	 */
+	int find(CharSequence _unit, int _offset, int _length) {
+		Integer id = this.ids.get(_unit, _offset, _length);
+		return (id == null) ? UNKNOWN : id.intValue();
+	}
+
+	/**
+	 * Returns the name registered for <code>_id</code>, as first seen.
+	 */
+	String nameOf(int _id) {
+		return this.ids.keyAt(_id);
+	}
+
+	int size() {
+		return this.ids.size();
+	}
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Maps the unit type tokens found in usage records, such as <code>MINUTES</code>, <code>KB</code>
+ * 	or <code>EVENTO</code>, into the {@link UnitIngester} that builds their counters. Tokens are
+ * 	matched ignoring case, with a single hash probe that does not depend on how many tokens are
+ * 	registered. Tokens with no entry use the fallback ingester, which is {@link UnitScale#MINUTES}
+ * 	unless changed.
+ * <p>
+ * The {@link #getDefault() default registry} knows the tokens understood by
+ * 	{@link ParserUtils#getUnitCounter(String, String)}; deployments may register their own tokens
+ * 	into it at startup. Registering is synchronized and rebuilds the table, while lookups read
+ * 	the current table without locking.
+ *
+ * @version $Id$
+ */
+public final class UnitTypeRegistry {
+
+	private static final UnitTypeRegistry defaultRegistry = withDefaults();
+
+
+	private volatile IgnoreCaseTable<UnitIngester> table;
+	private volatile UnitIngester fallback;
+
+
+	/**
+	 * Creates an empty registry, with {@link UnitScale#MINUTES} as fallback.
+	 */
+	public UnitTypeRegistry() {
+		this.table = IgnoreCaseTable.empty();
+		this.fallback = UnitScale.MINUTES;
+	}
+
+	/**
+	 * Creates a registry holding the same tokens as the default registry had before any
+	 * 	registration.
+	 */
+	public static UnitTypeRegistry withDefaults() {
+		UnitTypeRegistry registry = new UnitTypeRegistry();
+		registry.register("MINUTES", UnitScale.MINUTES);
+		registry.register("SECONDS", UnitScale.SECONDS);
+		registry.register("KB", UnitScale.KBYTES);
+		registry.register("KBYTES", UnitScale.KBYTES);
+		registry.register("MB", UnitScale.MBYTES);
+		registry.register("GB", UnitScale.GBYTES);
+		registry.register("TB", UnitScale.TBYTES);
+		registry.register(" B", UnitScale.BYTES);
+		registry.register("DOWNLOAD", UnitScale.UNITS);
+		registry.register("EVENT", UnitScale.UNITS);
+		registry.register("EVENTO", UnitScale.UNITS);
+		registry.register("UNIT", UnitScale.UNITS);
+		registry.register("TIME", UnitScale.SECONDS);
+		return registry;
+	}
+
+	/**
+	 * The registry used by {@link ParserUtils#getUnitCounter(String, String)}.
+	 */
+	public static UnitTypeRegistry getDefault() {
+		return defaultRegistry;
+	}
+
+	/**
+	 * Maps <code>_token</code>, ignoring case, into <code>_ingester</code>, replacing any
+	 * 	previous mapping.
+	 *
+	 * @throws IllegalArgumentException if the ingester does not build a known counter type
+	 */
+	public synchronized void register(String _token, UnitIngester _ingester) {
+		checkCounterType(_ingester);
+		this.table = this.table.with(_token, _ingester);
+	}
+
+	public UnitIngester getFallback() {
+		return this.fallback;
+	}
+
+	/**
+	 * Sets the ingester used for tokens with no entry.
+	 *
+	 * @throws IllegalArgumentException if the ingester does not build a known counter type
+	 */
+	public void setFallback(UnitIngester _fallback) {
+		checkCounterType(_fallback);
+		this.fallback = _fallback;
+	}
+
+	/**
+	 * Returns the ingester registered for <code>_token</code>, or the fallback ingester if
+	 * 	there is none.
+	 */
+	public UnitIngester lookup(CharSequence _token) {
+		return lookup(_token, 0, _token.length());
+	}
+
+	/**
+	 * Same as {@link #lookup(CharSequence)}, for the <code>_length</code> characters of
+	 * 	<code>_token</code> starting at <code>_offset</code>.
+	 */
+	public UnitIngester lookup(CharSequence _token, int _offset, int _length) {
+		UnitIngester ingester = this.table.get(_token, _offset, _length);
+		return (ingester != null) ? ingester : this.fallback;
+	}
+
+	/**
+	 * Returns the ingester registered for <code>_token</code>, or <code>null</code> if there
+	 * 	is none.
+	 */
+	public UnitIngester find(CharSequence _token) {
+		return this.table.get(_token);
+	}
+
+	/**
+	 * Returns all registered tokens and their ingesters, in registration order.
+	 */
+	public Map<String, UnitIngester> getEntries() {
+		IgnoreCaseTable<UnitIngester> current = this.table;
+		Map<String, UnitIngester> entries = new LinkedHashMap<String, UnitIngester>();
+		for (int i = 0; i < current.size(); i++) {
+			entries.put(current.keyAt(i), current.valueAt(i));
+		}
+		return entries;
+	}
+
+	private static void checkCounterType(UnitIngester _ingester) {
+		String type = _ingester.getCounterType();
+		if (!UnitCounter.TIME_COUNTER.equals(type) && !UnitCounter.DATA_COUNTER.equals(type)
+				&& !UnitCounter.UNIT_COUNTER.equals(type)) {
+			throw new IllegalArgumentException("Unknown type = " + type);
+		}
+	}
+}
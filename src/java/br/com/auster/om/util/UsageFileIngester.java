@@ -0,0 +1,321 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Aggregates the usage records of a file into a {@link UnitCounterTable}, one counter per key.
+ * <p>
+ * The file is memory mapped and split into chunks which end at a line break. Chunks are parsed
+ * 	in parallel straight from the mapped bytes, each into its own totals, and the totals are merged
+ * 	in file order at the end. Each line holds a record laid out as told by a {@link UsageFileLayout}:
+ * 	a numeric key, a unit type resolved through a {@link UnitTypeRegistry} and a quantity parsed
+ * 	by the matching {@link UnitIngester}, just like {@link ParserUtils#getUnitCounter(String, String)}.
+ * <p>
+ * Lines which can not be used, because a field is missing, the key is not a number or the quantity
+ * 	is not valid, are skipped and counted. As with <code>UnitCounter</code>, the type of each counter is set by the first
+ * 	record of its key, and units of other types found later for the same key are skipped and
+ * 	logged. Empty lines are ignored.
+ * 	Instances may be shared between threads once configured.
+ *
+ * @version $Id$
+ */
+public class UsageFileIngester {
+
+	private static final Logger log = Logger.getLogger(UsageFileIngester.class);
+
+	/** Default chunk size, in bytes. */
+	public static final int DEFAULT_CHUNK_SIZE = 64 << 20;
+
+
+	private final UsageFileLayout layout;
+	private final UnitTypeRegistry registry;
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+	private int headerLines;
+	private final AtomicLong lines = new AtomicLong();
+	private final AtomicLong rejectedLines = new AtomicLong();
+
+
+	public UsageFileIngester(UsageFileLayout _layout) {
+		this(_layout, UnitTypeRegistry.getDefault());
+	}
+
+	public UsageFileIngester(UsageFileLayout _layout, UnitTypeRegistry _registry) {
+		this.layout = _layout;
+		this.registry = _registry;
+	}
+
+	/**
+	 * Sets how many bytes each chunk should hold. Chunks are extended up to the next line break,
+	 * 	so a chunk is never smaller than this, except for the last one.
+	 */
+	public void setChunkSize(int _chunkSize) {
+		if ((_chunkSize <= 0) || (_chunkSize > Integer.MAX_VALUE / 2)) {
+			throw new IllegalArgumentException("Invalid chunk size = " + _chunkSize);
+		}
+		this.chunkSize = _chunkSize;
+	}
+
+	public int getChunkSize() {
+		return this.chunkSize;
+	}
+
+	/**
+	 * Sets how many lines are skipped at the beginning of each file.
+	 */
+	public void setHeaderLines(int _headerLines) {
+		if (_headerLines < 0) {
+			throw new IllegalArgumentException("Invalid header lines = " + _headerLines);
+		}
+		this.headerLines = _headerLines;
+	}
+
+	public int getHeaderLines() {
+		return this.headerLines;
+	}
+
+	/**
+	 * Returns how many non empty lines were read by this instance, skipped ones included.
+	 */
+	public long getLines() {
+		return this.lines.get();
+	}
+
+	/**
+	 * Returns how many lines were skipped by this instance because they could not be used.
+	 */
+	public long getRejectedLines() {
+		return this.rejectedLines.get();
+	}
+
+	/**
+	 * Same as {@link #ingest(Path, ExecutorService)}, using the common fork join pool.
+	 */
+	public UnitCounterTable ingest(Path _file) throws IOException {
+		return ingest(_file, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Aggregates all records of <code>_file</code>, parsing its chunks on <code>_pool</code>.
+	 *
+	 * @return a new table with one counter per key
+	 */
+	public UnitCounterTable ingest(Path _file, ExecutorService _pool) throws IOException {
+		FileChannel channel = FileChannel.open(_file, StandardOpenOption.READ);
+		List<Future<PartialTotals>> chunks = new ArrayList<Future<PartialTotals>>();
+		AtomicBoolean aborted = new AtomicBoolean();
+		try {
+			long size = channel.size();
+			long start = skipLines(channel, 0, this.headerLines);
+			while (start < size) {
+				long end = skipLines(channel, Math.min(start + this.chunkSize, size) - 1, 1);
+				chunks.add(_pool.submit(new Chunk(channel, start, end, aborted)));
+				start = end;
+			}
+			UnitCounterTable result = new UnitCounterTable();
+			for (Future<PartialTotals> chunk : chunks) {
+				chunk.get().mergeInto(result, log);
+			}
+			return result;
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw abort(chunks, aborted, new IOException("Interrupted while reading " + _file, ie));
+		} catch (ExecutionException ee) {
+			if (ee.getCause() instanceof IOException) {
+				throw abort(chunks, aborted, (IOException) ee.getCause());
+			} else if (ee.getCause() instanceof RuntimeException) {
+				throw abort(chunks, aborted, (RuntimeException) ee.getCause());
+			}
+			throw abort(chunks, aborted, new IOException("Could not read " + _file, ee.getCause()));
+		} catch (IOException ioe) {
+			throw abort(chunks, aborted, ioe);
+		} catch (RuntimeException re) {
+			throw abort(chunks, aborted, re);
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Makes the chunks not started yet return at once and waits for the running ones, so that the
+	 * 	file is not closed under them. Their own failures are added to <code>_failure</code>, which
+	 * 	stays the one reported.
+	 *
+	 * @return <code>_failure</code>
+	 */
+	private static <T extends Throwable> T abort(List<Future<PartialTotals>> _chunks, AtomicBoolean _aborted,
+			T _failure) {
+		_aborted.set(true);
+		boolean interrupted = Thread.interrupted();
+		for (Future<PartialTotals> chunk : _chunks) {
+			while (true) {
+				try {
+					chunk.get();
+					break;
+				} catch (InterruptedException ie) {
+					interrupted = true;
+				} catch (ExecutionException ee) {
+					Throwable cause = ee.getCause();
+					if ((cause != _failure) && (cause != _failure.getCause())) {
+						_failure.addSuppressed(cause);
+					}
+					break;
+				} catch (CancellationException ce) {
+					break;
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		return _failure;
+	}
+
+	/**
+	 * Returns the position following the <code>_count</code>-th line break found from
+	 * 	<code>_position</code> on, or the file size if there are not enough line breaks.
+	 */
+	private static long skipLines(FileChannel _channel, long _position, int _count) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(8192);
+		long position = _position;
+		while (_count > 0) {
+			buffer.clear();
+			int read = _channel.read(buffer, position);
+			if (read <= 0) {
+				return _channel.size();
+			}
+			for (int i = 0; (i < read) && (_count > 0); i++) {
+				position++;
+				if (buffer.get(i) == '\n') {
+					_count--;
+				}
+			}
+		}
+		return position;
+	}
+
+	/**
+	 * Parses the lines of a range of the file into a new table.
+	 */
+	private final class Chunk implements Callable<PartialTotals> {
+
+		private final FileChannel channel;
+		private final long start;
+		private final long end;
+		// set when another chunk failed, so that the ones not started yet do nothing
+		private final AtomicBoolean aborted;
+
+
+		Chunk(FileChannel _channel, long _start, long _end, AtomicBoolean _aborted) {
+			this.channel = _channel;
+			this.start = _start;
+			this.end = _end;
+			this.aborted = _aborted;
+		}
+
+		public PartialTotals call() throws IOException {
+			if (this.aborted.get()) {
+				return null;
+			}
+			MappedByteBuffer buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, this.start, this.end - this.start);
+			ByteCharSequence text = new ByteCharSequence().wrap(buffer);
+			PartialTotals totals = new PartialTotals();
+			int[] bounds = new int[6];
+			long read = 0;
+			long rejected = 0;
+			int limit = buffer.limit();
+			int lineStart = 0;
+			while (lineStart < limit) {
+				int lineEnd = lineStart;
+				while ((lineEnd < limit) && (buffer.get(lineEnd) != '\n')) { lineEnd++; }
+				int next = lineEnd + 1;
+				if ((lineEnd > lineStart) && (buffer.get(lineEnd-1) == '\r')) { lineEnd--; }
+				if (lineEnd > lineStart) {
+					read++;
+					if (!ingestLine(buffer, text, lineStart, lineEnd, bounds, totals)) {
+						rejected++;
+					}
+				}
+				lineStart = next;
+			}
+			lines.addAndGet(read);
+			rejectedLines.addAndGet(rejected);
+			return totals;
+		}
+
+		private boolean ingestLine(ByteBuffer _buffer, ByteCharSequence _text, int _start, int _end, int[] _bounds,
+				PartialTotals _totals) {
+			if (!layout.locate(_buffer, _start, _end, _bounds)) {
+				return false;
+			}
+			long key = parseKey(_buffer, _bounds[0], _bounds[1]);
+			if (key == Long.MIN_VALUE) {
+				return false;
+			}
+			UnitIngester ingester = registry.lookup(_text, _bounds[2], _bounds[3] - _bounds[2]);
+			long units = ingester.parseUnits(_text, _bounds[4], _bounds[5] - _bounds[4]);
+			if (units == UnitIngester.INVALID_UNITS) {
+				return false;
+			}
+			_totals.add(key, UnitCounter.tagOf(ingester.getCounterType()), units);
+			return true;
+		}
+	}
+
+	/**
+	 * Parses a decimal key, with an optional minus sign and surrounding spaces.
+	 *
+	 * @return the key, or <code>Long.MIN_VALUE</code> if the field is not a valid number
+	 */
+	private static long parseKey(ByteBuffer _buffer, int _start, int _end) {
+		while ((_start < _end) && (_buffer.get(_start) == ' ')) { _start++; }
+		while ((_end > _start) && (_buffer.get(_end-1) == ' ')) { _end--; }
+		boolean negative = (_start < _end) && (_buffer.get(_start) == '-');
+		if (negative) { _start++; }
+		if ((_start == _end) || (_end - _start > 18)) {
+			return Long.MIN_VALUE;
+		}
+		long key = 0;
+		for (int pos = _start; pos < _end; pos++) {
+			int digit = _buffer.get(pos) - '0';
+			if ((digit < 0) || (digit > 9)) {
+				return Long.MIN_VALUE;
+			}
+			key = (key * 10) + digit;
+		}
+		return negative ? -key : key;
+	}
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Tells where the key, the unit type and the quantity of a usage record are within a line of
+ * 	a usage file read by {@link UsageFileIngester}. Lines are either split by a delimiter or
+ * 	cut at fixed positions.
+ * <p>
+ * Fields are handed over as they are, except that fixed width fields lose their trailing
+ * 	spaces. Types are then resolved like {@link ParserUtils#getUnitCounter(String, String)}
+ * 	does, and quantities are parsed like {@link ParserUtils#getDouble(String)}.
+ *
+ * @version $Id$
+ */
+public final class UsageFileLayout {
+
+	// field order in the bounds filled by locate()
+	static final int KEY = 0;
+	static final int TYPE = 1;
+	static final int VALUE = 2;
+
+
+	private final int delimiter;
+	// column indexes for delimited lines, or start positions for fixed width lines
+	private final int[] columns;
+	// field lengths for fixed width lines, null for delimited lines
+	private final int[] lengths;
+
+
+	private UsageFileLayout(int _delimiter, int[] _columns, int[] _lengths) {
+		for (int i = 0; i < _columns.length; i++) {
+			if ((_columns[i] < 0) || ((_lengths != null) && (_lengths[i] <= 0))) {
+				throw new IllegalArgumentException("Invalid field position " + _columns[i] +
+						((_lengths != null) ? " with length " + _lengths[i] : ""));
+			}
+		}
+		this.delimiter = _delimiter;
+		this.columns = _columns;
+		this.lengths = _lengths;
+	}
+
+	/**
+	 * Creates a layout for lines split by <code>_delimiter</code>, with zero based column indexes.
+	 *
+	 * @param _delimiter an ISO-8859-1 character, such as <code>';'</code> or <code>'\t'</code>
+	 */
+	public static UsageFileLayout delimited(char _delimiter, int _keyColumn, int _typeColumn, int _valueColumn) {
+		if ((_delimiter > 0xff) || (_delimiter == '\n') || (_delimiter == '\r')) {
+			throw new IllegalArgumentException("Invalid delimiter = " + (int) _delimiter);
+		}
+		return new UsageFileLayout(_delimiter, new int[] { _keyColumn, _typeColumn, _valueColumn }, null);
+	}
+
+	/**
+	 * Creates a layout for lines with fields at fixed, zero based, positions.
+	 */
+	public static UsageFileLayout fixedWidth(int _keyStart, int _keyLength, int _typeStart, int _typeLength,
+			int _valueStart, int _valueLength) {
+		return new UsageFileLayout(-1, new int[] { _keyStart, _typeStart, _valueStart },
+				new int[] { _keyLength, _typeLength, _valueLength });
+	}
+
+	public boolean isDelimited() {
+		return this.lengths == null;
+	}
+
+	/**
+	 * Finds the fields of the line between <code>_start</code> and <code>_end</code>, storing the
+	 * 	start and end of each field in <code>_bounds</code>, in key, type and value order.
+	 *
+	 * @return <code>false</code> if the line is too short to hold every field
+	 */
+	boolean locate(ByteBuffer _buffer, int _start, int _end, int[] _bounds) {
+		if (this.lengths == null) {
+			return locateDelimited(_buffer, _start, _end, _bounds);
+		}
+		for (int field = 0; field < 3; field++) {
+			int from = _start + this.columns[field];
+			if (from >= _end) {
+				return false;
+			}
+			int to = Math.min(from + this.lengths[field], _end);
+			while ((to > from) && (_buffer.get(to-1) == ' ')) { to--; }
+			_bounds[field*2] = from;
+			_bounds[field*2 + 1] = to;
+		}
+		return true;
+	}
+
+	private boolean locateDelimited(ByteBuffer _buffer, int _start, int _end, int[] _bounds) {
+		int found = 0;
+		int column = 0;
+		int from = _start;
+		for (int pos = _start; pos <= _end; pos++) {
+			if ((pos < _end) && ((_buffer.get(pos) & 0xff) != this.delimiter)) {
+				continue;
+			}
+			for (int field = 0; field < 3; field++) {
+				if (this.columns[field] == column) {
+					_bounds[field*2] = from;
+					_bounds[field*2 + 1] = pos;
+					found++;
+				}
+			}
+			if (found == 3) {
+				return true;
+			}
+			column++;
+			from = pos + 1;
+		}
+		return false;
+	}
+}
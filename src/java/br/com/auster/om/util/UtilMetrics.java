@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2004 Auster Solutions. All Rights Reserved.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO,
+ * THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE
+ * OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ *
+ * Created on Oct 18, 2026
+ */
+package br.com.auster.om.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Optional usage counters of the hot paths of this library: calls, default results, failures and
+ * 	latency of the <code>String</code> parsing methods of {@link ParserUtils}, and how the lookups of
+ * 	{@link UnitConvertor} resolve.
+ * <p>
+ * Counting is off unless enabled with {@link #setEnabled(boolean)}, or with the system property
+ * 	<code>br.com.auster.om.util.metrics=true</code>. While off, the instrumented methods only read a
+ * 	<code>volatile</code> flag. While on, counters are <code>LongAdder</code>s, which threads update
+ * 	without contending with each other. Counters can be pulled with the static methods of this class
+ * 	or through JMX, once {@link #registerMBean()} is called.
+ *
+ * @version $Id$
+ */
+public final class UtilMetrics {
+
+	/** The name of the MBean registered by {@link #registerMBean()}. */
+	public static final String OBJECT_NAME = "br.com.auster.om.util:type=UtilMetrics";
+
+	private static final ParseMethod[] METHODS = ParseMethod.values();
+	private static final int BUCKETS = 64;
+
+	static final int SAME_UNIT = 0;
+	static final int HIT = 1;
+	static final int MISS = 2;
+
+	private static volatile boolean enabled = Boolean.getBoolean("br.com.auster.om.util.metrics");
+
+	private static final LongAdder[] calls = newAdders(METHODS.length);
+	private static final LongAdder[] defaults = newAdders(METHODS.length);
+	private static final LongAdder[] failures = newAdders(METHODS.length);
+	private static final LongAdder[][] latency = new LongAdder[METHODS.length][];
+	static {
+		for (int i = 0; i < METHODS.length; i++) {
+			latency[i] = newAdders(BUCKETS);
+		}
+	}
+	private static final LongAdder[] lookups = newAdders(3);
+
+
+	private UtilMetrics() {}
+
+	private static LongAdder[] newAdders(int _count) {
+		LongAdder[] adders = new LongAdder[_count];
+		for (int i = 0; i < _count; i++) {
+			adders[i] = new LongAdder();
+		}
+		return adders;
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Turns counting on or off. Counters keep their values while counting is off.
+	 */
+	public static void setEnabled(boolean _enabled) {
+		enabled = _enabled;
+	}
+
+	/**
+	 * Returns the current counters of <code>_method</code>.
+	 */
+	public static MethodMetrics getMethodMetrics(ParseMethod _method) {
+		int index = _method.ordinal();
+		long[] histogram = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			histogram[i] = latency[index][i].sum();
+		}
+		return new MethodMetrics(_method.getMethodName(), calls[index].sum(), defaults[index].sum(),
+				failures[index].sum(), histogram);
+	}
+
+	/**
+	 * Returns how many <code>UnitConvertor</code> lookups found a factor for two different units.
+	 */
+	public static long getConvertorHits() {
+		return lookups[HIT].sum();
+	}
+
+	/**
+	 * Returns how many <code>UnitConvertor</code> lookups found no factor for two different units,
+	 * 	and so returned <code>1</code>.
+	 */
+	public static long getConvertorMisses() {
+		return lookups[MISS].sum();
+	}
+
+	/**
+	 * Returns how many <code>UnitConvertor</code> lookups were for a unit into itself.
+	 */
+	public static long getConvertorSameUnits() {
+		return lookups[SAME_UNIT].sum();
+	}
+
+	/**
+	 * Sets all counters back to zero.
+	 */
+	public static void reset() {
+		for (int i = 0; i < METHODS.length; i++) {
+			calls[i].reset();
+			defaults[i].reset();
+			failures[i].reset();
+			for (int j = 0; j < BUCKETS; j++) {
+				latency[i][j].reset();
+			}
+		}
+		for (int i = 0; i < lookups.length; i++) {
+			lookups[i].reset();
+		}
+	}
+
+	/**
+	 * Registers the counters in the platform MBean server under {@link #OBJECT_NAME}. Calling it
+	 * 	again has no effect.
+	 */
+	public static void registerMBean() throws JMException {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		try {
+			server.registerMBean(new Bean(), new ObjectName(OBJECT_NAME));
+		} catch (InstanceAlreadyExistsException iaee) {
+			// already registered
+		}
+	}
+
+	/**
+	 * Removes the MBean registered by {@link #registerMBean()}, if any.
+	 */
+	public static void unregisterMBean() throws JMException {
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME));
+		} catch (InstanceNotFoundException infe) {
+			// not registered
+		}
+	}
+
+	/**
+	 * Counts a call to <code>_method</code> started at <code>_start</code>, as given by
+	 * 	<code>System.nanoTime()</code>.
+	 */
+	static void called(ParseMethod _method, long _start) {
+		long elapsed = System.nanoTime() - _start;
+		int index = _method.ordinal();
+		calls[index].increment();
+		latency[index][(elapsed <= 1) ? 0 : 63 - Long.numberOfLeadingZeros(elapsed)].increment();
+	}
+
+	static void defaulted(ParseMethod _method) {
+		if (enabled) {
+			defaults[_method.ordinal()].increment();
+		}
+	}
+
+	static void failed(ParseMethod _method) {
+		if (enabled) {
+			failures[_method.ordinal()].increment();
+		}
+	}
+
+	/**
+	 * Counts a convertor lookup, which is one of {@link #SAME_UNIT}, {@link #HIT} or {@link #MISS}.
+	 */
+	static void looked(int _outcome) {
+		lookups[_outcome].increment();
+	}
+
+
+	private static final class Bean implements UtilMetricsMXBean {
+
+		public boolean isEnabled() {
+			return UtilMetrics.isEnabled();
+		}
+
+		public void setEnabled(boolean _enabled) {
+			UtilMetrics.setEnabled(_enabled);
+		}
+
+		public Map<String, MethodMetrics> getParserMethods() {
+			Map<String, MethodMetrics> result = new LinkedHashMap<String, MethodMetrics>();
+			for (int i = 0; i < METHODS.length; i++) {
+				result.put(METHODS[i].getMethodName(), getMethodMetrics(METHODS[i]));
+			}
+			return result;
+		}
+
+		public long getConvertorHits() {
+			return UtilMetrics.getConvertorHits();
+		}
+
+		public long getConvertorMisses() {
+			return UtilMetrics.getConvertorMisses();
+		}
+
+		public long getConvertorSameUnits() {
+			return UtilMetrics.getConvertorSameUnits();
+		}
+
+		public void reset() {
+			UtilMetrics.reset();
+		}
+	}
+}